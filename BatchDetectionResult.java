@@ -0,0 +1,16 @@
+package com.criminaldetector.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated outcome of a batch detection request.
+ *
+ * @param images        per-image results in submission order
+ * @param matchedImages number of images with at least one match
+ * @param elapsedMs     wall-clock time for the whole batch
+ * @param timingsMs     batch-level stages, such as the single watchlist fetch
+ */
+public record BatchDetectionResult(List<BatchImageResult> images, int matchedImages, double elapsedMs,
+                                   Map<String, Double> timingsMs) {
+}
@@ -0,0 +1,189 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many images through decode and detect/match as a two-stage pipeline,
+ * so one image can be decoded while others are being matched. The watchlist
+ * is read once per batch and shared by every image in it.
+ */
+@Service
+public class BatchDetectionService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchDetectionService.class);
+
+    @Autowired
+    private FaceDetectionService faceDetectionService;
+
+    @Autowired
+    private DetectionMetrics detectionMetrics;
+
+    @Value("${detection.batch.decode-threads:2}")
+    private int decodeThreads;
+
+    // 0 means one thread per core
+    @Value("${detection.batch.detect-threads:0}")
+    private int detectThreads;
+
+    // Images decoded or waiting to be matched at once, which bounds memory use
+    @Value("${detection.batch.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${detection.batch.max-images:200}")
+    private int maxImages;
+
+    // Largest single image accepted from an archive, checked while inflating
+    @Value("${detection.batch.max-image-bytes:16777216}")
+    private int maxImageBytes;
+
+    private ExecutorService decodeExecutor;
+    private ExecutorService detectExecutor;
+
+    @PostConstruct
+    public void init() {
+        decodeExecutor = Executors.newFixedThreadPool(decodeThreads, namedThreads("batch-decode-"));
+        int threads = detectThreads > 0 ? detectThreads : Runtime.getRuntime().availableProcessors();
+        detectExecutor = Executors.newFixedThreadPool(threads, namedThreads("batch-detect-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodeExecutor.shutdownNow();
+        detectExecutor.shutdownNow();
+    }
+
+    public int getMaxImages() {
+        return maxImages;
+    }
+
+    public int getMaxImageBytes() {
+        return maxImageBytes;
+    }
+
+    /**
+     * Starts a batch. Images are fed in with {@link Batch#submit} as they are
+     * read, and {@link Batch#await} collects the results.
+     */
+    public Batch start(String detectorName) {
+        return new Batch(detectorName);
+    }
+
+    public class Batch {
+        private final String detectorName;
+        private final DetectionTimings batchTimings = new DetectionTimings();
+        private final Map<Long, Criminal> watchlist;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final List<String> names = new ArrayList<>();
+        private final List<CompletableFuture<DetectionResult>> results = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        private volatile boolean cancelled;
+
+        private Batch(String detectorName) {
+            this.detectorName = detectorName;
+            this.watchlist = faceDetectionService.loadWatchlist(batchTimings);
+        }
+
+        /**
+         * Queues one encoded image. Blocks while {@code max-in-flight} images
+         * are already in the pipeline.
+         */
+        public void submit(String name, byte[] imageData) throws InterruptedException {
+            if (names.size() >= maxImages) {
+                throw new IllegalArgumentException("A batch may contain at most " + maxImages + " images");
+            }
+            inFlight.acquire();
+            DetectionTimings timings = new DetectionTimings();
+            CompletableFuture<DetectionResult> result = CompletableFuture
+                .supplyAsync(() -> decode(imageData, timings), decodeExecutor)
+                .thenApplyAsync(image -> detect(image, timings), detectExecutor)
+                .whenComplete((r, e) -> inFlight.release());
+            names.add(name);
+            results.add(result);
+        }
+
+        /**
+         * Abandons the batch after a failed submission. Images already in the
+         * pipeline are skipped at their next stage and their decoded frames
+         * released, instead of running to completion for nobody.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public BatchDetectionResult await() {
+            List<BatchImageResult> images = new ArrayList<>(results.size());
+            int matchedImages = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    DetectionResult result = results.get(i).join();
+                    if (!result.matches().isEmpty()) {
+                        matchedImages++;
+                    }
+                    images.add(new BatchImageResult(names.get(i), result, null));
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    logger.warn("Batch image {} failed: {}", names.get(i), cause.getMessage());
+                    images.add(new BatchImageResult(names.get(i), null, cause.getMessage()));
+                }
+            }
+            double elapsedMs = (System.nanoTime() - startNanos) / 1_000_000.0;
+            // Per-image stages are recorded as each image is analysed; only the shared fetch is left
+            detectionMetrics.recordStages(batchTimings);
+            logger.info("Batch of {} images processed in {} ms, {} with matches",
+                images.size(), String.format("%.1f", elapsedMs), matchedImages);
+            return new BatchDetectionResult(images, matchedImages, elapsedMs, batchTimings.toMillis());
+        }
+
+        private Mat decode(byte[] imageData, DetectionTimings timings) {
+            if (cancelled) {
+                throw new CancellationException("Batch cancelled");
+            }
+            try {
+                return faceDetectionService.decode(imageData, timings);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }
+
+        private DetectionResult detect(Mat image, DetectionTimings timings) {
+            try {
+                if (cancelled) {
+                    throw new CancellationException("Batch cancelled");
+                }
+                return faceDetectionService.analyze(image, detectorName, watchlist, timings);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                image.close();
+            }
+        }
+    }
+
+    private static java.util.concurrent.ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package com.criminaldetector.service;
+
+/**
+ * Outcome for one image of a batch: either a result or the error that
+ * prevented it from being processed.
+ */
+public record BatchImageResult(String name, DetectionResult result, String error) {
+}
@@ -0,0 +1,192 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.config.FaceIndexConfig;
+import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.CriminalSummary;
+import com.criminaldetector.model.FaceEmbedding;
+import com.criminaldetector.repository.FaceEmbeddingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.domain.Page;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.bytedeco.opencv.global.opencv_imgproc.COLOR_BGR2GRAY;
+import static org.bytedeco.opencv.global.opencv_imgproc.cvtColor;
+import static org.bytedeco.opencv.global.opencv_imgproc.equalizeHist;
+
+/**
+ * Wires the real detection beans around an in-memory synthetic watchlist, so
+ * benchmarks exercise production code without MySQL, photos or a web server.
+ * Criminal {@code i} has id {@code i + 1} and a template drawn from seed {@code i}.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+    private final WatchlistSnapshot watchlist;
+
+    BenchmarkContext(int watchlistSize, Map<String, Object> properties) {
+        List<Criminal> criminals = new ArrayList<>(watchlistSize);
+        Map<Long, FaceEmbedding> embeddings = new LinkedHashMap<>();
+        for (int i = 0; i < watchlistSize; i++) {
+            Criminal criminal = new Criminal();
+            criminal.setId((long) i + 1);
+            criminal.setName("Synthetic " + i);
+            criminal.setAge(20 + i % 50);
+            criminal.setGender(i % 2 == 0 ? "Male" : "Female");
+            criminal.setCrimeDetails("Synthetic benchmark record");
+            criminal.setImageName("synthetic-" + i + ".jpg");
+            criminals.add(criminal);
+            embeddings.put(criminal.getId(), syntheticEmbedding(criminal, i));
+        }
+        watchlist = WatchlistSnapshot.of(1, criminals);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+            .addFirst(new MapPropertySource("benchmark", new LinkedHashMap<>(properties)));
+        context.registerBean(CriminalService.class, () -> new SnapshotCriminalService(watchlist));
+        context.registerBean(FaceEmbeddingRepository.class, () -> embeddingRepository(embeddings));
+        String indexType = String.valueOf(properties.getOrDefault("face.index.type", "flat"));
+        context.registerBean(FaceMatchingPool.class, () -> new FaceMatchingPool(0));
+        context.registerBean(FaceVectorIndex.class, () -> new FaceIndexConfig()
+            .faceVectorIndex(indexType, 4096, 64, 8, context.getBean(FaceMatchingPool.class)));
+        context.registerBean(PhotoStore.class, InMemoryPhotoStore::new);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(NativeMemoryMonitor.class, DetectionMetrics.class, DetectionTraceLogger.class,
+            HaarFaceDetector.class, FaceDetectorRegistry.class, FaceDetectionService.class,
+            VideoDetectionService.class);
+        context.refresh();
+
+        // Stands in for the ApplicationReadyEvent bulk load
+        faceDetectionService().loadEmbeddings();
+    }
+
+    FaceDetectionService faceDetectionService() {
+        return context.getBean(FaceDetectionService.class);
+    }
+
+    VideoDetectionService videoDetectionService() {
+        return context.getBean(VideoDetectionService.class);
+    }
+
+    HaarFaceDetector haarFaceDetector() {
+        return context.getBean(HaarFaceDetector.class);
+    }
+
+    Map<Long, Criminal> watchlist() {
+        return watchlist.byId();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    /**
+     * Grayscale, equalised template for criminal {@code seed}, built the same
+     * way enrollment builds one from a cropped face.
+     */
+    static Mat template(long seed) {
+        Mat gray = new Mat();
+        cvtColor(SyntheticImages.face(FaceDetectionService.TEMPLATE_SIZE, seed), gray, COLOR_BGR2GRAY);
+        equalizeHist(gray, gray);
+        return gray;
+    }
+
+    private static FaceEmbedding syntheticEmbedding(Criminal criminal, long seed) {
+        try (PointerScope scope = new PointerScope()) {
+            Mat template = template(seed);
+            return new FaceEmbedding(criminal.getId(), criminal.getImageName(), FaceDetectionService.TEMPLATE_SIZE,
+                FaceDetectionService.encodeTemplate(template),
+                FaceDetectionService.encodeVector(FaceDetectionService.toFeatureVector(template)), null);
+        }
+    }
+
+    // Only the calls the detection service makes are answered; anything else is a benchmark bug
+    private static FaceEmbeddingRepository embeddingRepository(Map<Long, FaceEmbedding> embeddings) {
+        return (FaceEmbeddingRepository) Proxy.newProxyInstance(FaceEmbeddingRepository.class.getClassLoader(),
+            new Class<?>[] {FaceEmbeddingRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findAll":
+                        return new ArrayList<>(embeddings.values());
+                    case "findById":
+                        return Optional.ofNullable(embeddings.get((Long) args[0]));
+                    case "save":
+                        return args[0];
+                    case "deleteById":
+                    case "deleteAllById":
+                        return null;
+                    case "toString":
+                        return "SyntheticFaceEmbeddingRepository";
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static final class SnapshotCriminalService implements CriminalService {
+        private final WatchlistSnapshot snapshot;
+
+        private SnapshotCriminalService(WatchlistSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public WatchlistSnapshot getWatchlist() {
+            return snapshot;
+        }
+
+        @Override
+        public List<Criminal> getAllCriminals() {
+            return snapshot.criminals();
+        }
+
+        @Override
+        public Criminal getCriminalById(Long id) {
+            return snapshot.byId().get(id);
+        }
+
+        @Override
+        public Map<String, Number> getWatchlistStats() {
+            return Map.of("size", snapshot.size());
+        }
+
+        @Override
+        public Criminal saveCriminal(Criminal criminal) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteCriminal(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isPhotoInUse(String imageName) {
+            return true;
+        }
+
+        @Override
+        public Page<CriminalSummary> getCriminalPage(int page, int size, String sort, String direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CriminalSummary> getCriminalsAfter(Long afterId, int size) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
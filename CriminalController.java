@@ -1,24 +1,22 @@
 package com.criminaldetector.controller;
 
 import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.CriminalSummary;
 import com.criminaldetector.service.CriminalService;
+import com.criminaldetector.service.DetectionTimings;
 import com.criminaldetector.service.FaceDetectionService;
+import com.criminaldetector.service.PhotoStore;
+import com.criminaldetector.service.ThumbnailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 import java.util.List;
-import java.io.File;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,35 +31,54 @@ public class CriminalController {
     @Autowired
     private FaceDetectionService faceDetectionService;
 
-    // Store uploads in static resources directory
-    private static final String UPLOAD_DIR = "src/main/resources/static/uploads";
+    @Autowired
+    private ThumbnailService thumbnailService;
 
-    @PostConstruct
-    public void init() {
-        // Create upload directory when application starts
-        try {
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                boolean created = uploadDir.mkdirs();
-                if (!created) {
-                    throw new RuntimeException("Failed to create upload directory: " + UPLOAD_DIR);
-                }
-                logger.info("Created upload directory: {}", UPLOAD_DIR);
-            }
-        } catch (Exception e) {
-            logger.error("Error creating upload directory: {}", e.getMessage(), e);
-        }
-    }
+    @Autowired
+    private PhotoStore photoStore;
+
+    private static final int RECENT_CRIMINALS = 20;
 
     @GetMapping({"/", "/home"})
     public String showDetectionPage(Model model) {
-        model.addAttribute("criminals", criminalService.getAllCriminals());
+        // The home page only shows the most recent records
+        model.addAttribute("criminals", criminalService.getCriminalPage(0, RECENT_CRIMINALS, "id", "desc").getContent());
         return "detection";
     }
 
+    /**
+     * Paged listing. Offset pages ({@code page}) support sorting and show a
+     * page count; passing {@code after} switches to keyset paging by id,
+     * which costs the same on the last page as on the first.
+     */
     @GetMapping("/criminal-list")
-    public String showCriminalList(Model model) {
-        model.addAttribute("criminals", criminalService.getAllCriminals());
+    public String showCriminalList(@RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam(value = "size", defaultValue = "20") int size,
+                                   @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                   @RequestParam(value = "dir", defaultValue = "asc") String dir,
+                                   @RequestParam(value = "after", required = false) Long after,
+                                   Model model) {
+        size = Math.min(Math.max(size, 1), CriminalService.MAX_PAGE_SIZE);
+        if (after != null) {
+            List<CriminalSummary> rows = criminalService.getCriminalsAfter(after, size);
+            boolean hasNext = rows.size() > size;
+            List<CriminalSummary> criminals = hasNext ? rows.subList(0, size) : rows;
+            model.addAttribute("criminals", criminals);
+            model.addAttribute("keyset", true);
+            model.addAttribute("hasNext", hasNext);
+            model.addAttribute("nextAfter", criminals.isEmpty() ? after : criminals.get(criminals.size() - 1).getId());
+        } else {
+            Page<CriminalSummary> criminalPage = criminalService.getCriminalPage(page, size, sort, dir);
+            model.addAttribute("criminals", criminalPage.getContent());
+            model.addAttribute("keyset", false);
+            model.addAttribute("currentPage", criminalPage.getNumber());
+            model.addAttribute("totalPages", criminalPage.getTotalPages());
+            model.addAttribute("totalCriminals", criminalPage.getTotalElements());
+            model.addAttribute("hasNext", criminalPage.hasNext());
+        }
+        model.addAttribute("size", size);
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         return "criminal-list";
     }
 
@@ -74,7 +91,6 @@ public class CriminalController {
                             RedirectAttributes redirectAttributes) {
         try {
             logger.info("Starting criminal addition process...");
-            logger.info("Upload directory: {}", UPLOAD_DIR);
 
             // Validate input parameters
             if (name == null || name.trim().isEmpty()) {
@@ -101,20 +117,9 @@ public class CriminalController {
                 throw new IllegalArgumentException("Please upload an image file");
             }
 
-            // Generate unique filename with original extension
-            String originalFilename = photo.getOriginalFilename();
-            String extension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String filename = UUID.randomUUID().toString() + extension;
-            logger.info("Generated filename: {}", filename);
-            
-            // Ensure upload directory exists
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                boolean created = uploadDir.mkdirs();
-                if (!created) {
-                    throw new IOException("Failed to create upload directory: " + UPLOAD_DIR);
-                }
-            }
+            // Store the photo under its content hash; a duplicate upload reuses the stored copy
+            String filename = photoStore.store(photo.getBytes(), extensionOf(photo));
+            logger.info("Stored photo as: {}", filename);
 
             // Create criminal record
             Criminal criminal = new Criminal();
@@ -127,28 +132,23 @@ public class CriminalController {
             logger.info("Attempting to save criminal to database...");
             
             try {
-                // Save to database first
-                Criminal savedCriminal = criminalService.saveCriminal(criminal);
-                if (savedCriminal == null || savedCriminal.getId() == null) {
-                    throw new RuntimeException("Failed to save criminal record to database");
-                }
-                
-                // After successful database save, save the file
-                File destFile = new File(UPLOAD_DIR, filename);
-                logger.info("Saving file to: {}", destFile.getAbsolutePath());
-                
+                Criminal savedCriminal;
                 try {
-                    Files.copy(photo.getInputStream(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    if (!destFile.exists()) {
-                        throw new IOException("File was not saved successfully");
+                    savedCriminal = criminalService.saveCriminal(criminal);
+                    if (savedCriminal == null || savedCriminal.getId() == null) {
+                        throw new RuntimeException("Failed to save criminal record to database");
                     }
-                    // Clear the embeddings cache after successful file save
-                    faceDetectionService.clearEmbeddingsCache();
-                } catch (IOException e) {
-                    // If file save fails, delete the database record
-                    criminalService.deleteCriminal(savedCriminal.getId());
-                    throw new IOException("Failed to save photo file: " + e.getMessage(), e);
+                } catch (RuntimeException e) {
+                    // If the database save fails, drop the photo unless another record shares it
+                    deletePhotoIfUnused(filename);
+                    throw e;
                 }
+
+                // Precompute the face embedding so detection never decodes this photo
+                if (!faceDetectionService.enrollCriminal(savedCriminal)) {
+                    logger.warn("No face found in photo for criminal ID: {}", savedCriminal.getId());
+                }
+                thumbnailService.createThumbnails(filename);
                 
                 redirectAttributes.addFlashAttribute("success", "Criminal added successfully!");
                 logger.info("Criminal added successfully with ID: {}", savedCriminal.getId());
@@ -198,6 +198,7 @@ public class CriminalController {
             }
 
             // Update basic information
+            String previousPhoto = null;
             criminal.setName(name.trim());
             criminal.setAge(age);
             criminal.setGender(gender.trim());
@@ -211,26 +212,22 @@ public class CriminalController {
                     throw new IllegalArgumentException("Please upload an image file");
                 }
 
-                // Delete old photo if it exists
-                File oldPhoto = new File(UPLOAD_DIR, criminal.getImageName());
-                if (oldPhoto.exists()) {
-                    oldPhoto.delete();
-                }
-
                 // Save new photo
-                String originalFilename = photo.getOriginalFilename();
-                String extension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-                String filename = UUID.randomUUID().toString() + extension;
-                
-                File destFile = new File(UPLOAD_DIR, filename);
-                Files.copy(photo.getInputStream(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                
+                previousPhoto = criminal.getImageName();
+                String filename = photoStore.store(photo.getBytes(), extensionOf(photo));
                 criminal.setImageName(filename);
+                thumbnailService.createThumbnails(filename);
             }
 
-            criminalService.saveCriminal(criminal);
-            // Clear the embeddings cache after successful update
-            faceDetectionService.clearEmbeddingsCache();
+            Criminal savedCriminal = criminalService.saveCriminal(criminal);
+            // Re-embed only this record in case the photo changed
+            if (!faceDetectionService.enrollCriminal(savedCriminal)) {
+                logger.warn("No face found in photo for criminal ID: {}", savedCriminal.getId());
+            }
+            // The old photo goes only once the record no longer points at it
+            if (previousPhoto != null && !previousPhoto.equals(savedCriminal.getImageName())) {
+                deletePhotoIfUnused(previousPhoto);
+            }
             redirectAttributes.addFlashAttribute("success", "Criminal updated successfully!");
             return "redirect:/";
 
@@ -247,12 +244,12 @@ public class CriminalController {
         try {
             Criminal criminal = criminalService.getCriminalById(id);
             if (criminal != null) {
-                // Delete photo file using imageName
-                Path photoPath = Paths.get(UPLOAD_DIR, criminal.getImageName());
-                Files.deleteIfExists(photoPath);
-                
                 // Delete database record
                 criminalService.deleteCriminal(id);
+                faceDetectionService.evictCriminal(id);
+
+                // Delete the photo unless another record uses the same one
+                deletePhotoIfUnused(criminal.getImageName());
                 return ResponseEntity.ok().build();
             }
             return ResponseEntity.notFound().build();
@@ -266,14 +263,12 @@ public class CriminalController {
         try {
             Criminal criminal = criminalService.getCriminalById(id);
             if (criminal != null) {
-                // Delete photo file
-                File photo = new File(UPLOAD_DIR, criminal.getImageName());
-                if (photo.exists()) {
-                    photo.delete();
-                }
-                
                 // Delete database record
                 criminalService.deleteCriminal(id);
+                faceDetectionService.evictCriminal(id);
+
+                // Delete the photo unless another record uses the same one
+                deletePhotoIfUnused(criminal.getImageName());
                 redirectAttributes.addFlashAttribute("success", "Criminal deleted successfully!");
             } else {
                 redirectAttributes.addFlashAttribute("error", "Criminal not found");
@@ -311,9 +306,11 @@ public class CriminalController {
     }
 
     @PostMapping("/detect")
-    public String detectCriminal(@RequestParam("image") MultipartFile image, Model model) {
+    public String detectCriminal(@RequestParam("image") MultipartFile image,
+                                 @RequestParam(value = "detector", required = false) String detector,
+                                 Model model) {
         try {
-            logger.info("Starting criminal detection process...");
+            logger.debug("Starting criminal detection process...");
 
             // Validate file
             if (image == null || image.isEmpty()) {
@@ -326,38 +323,23 @@ public class CriminalController {
                 throw new IllegalArgumentException("Invalid file type. Please upload an image file.");
             }
 
-            // Save the uploaded image temporarily
-            String filename = UUID.randomUUID().toString() + ".jpg";
-            Path tempPath = Paths.get(UPLOAD_DIR, filename);
-            Files.copy(image.getInputStream(), tempPath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Temporary image saved at: {}", tempPath);
+            // Decode the upload in memory instead of round-tripping through a temp file
+            DetectionTimings timings = new DetectionTimings();
+            List<Criminal> matches = faceDetectionService.detectCriminal(image.getBytes(), detector, timings);
+            logger.debug("Face detection completed. Found {} matches ({})", matches.size(), timings);
+            model.addAttribute("timings", timings.toMillis());
 
-            try {
-                // Detect faces in the image
-                List<Criminal> matches = faceDetectionService.detectCriminal(tempPath.toString());
-                logger.info("Face detection completed. Found {} matches", matches.size());
-
-                if (!matches.isEmpty()) {
-                    model.addAttribute("matchedcriminal", matches.get(0));
-                    if (matches.size() > 1) {
-                        model.addAttribute("otherMatches", matches.subList(1, matches.size()));
-                    }
-                    return "result";
+            if (!matches.isEmpty()) {
+                model.addAttribute("matchedcriminal", matches.get(0));
+                if (matches.size() > 1) {
+                    model.addAttribute("otherMatches", matches.subList(1, matches.size()));
                 }
-
-                model.addAttribute("message", "No criminal match found in our database.");
                 return "result";
-
-            } finally {
-                // Always try to delete the temporary file
-                try {
-                    Files.deleteIfExists(tempPath);
-                    logger.info("Temporary image deleted: {}", tempPath);
-                } catch (IOException e) {
-                    logger.warn("Failed to delete temporary image: {}", tempPath, e);
-                }
             }
 
+            model.addAttribute("message", "No criminal match found in our database.");
+            return "result";
+
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid input: {}", e.getMessage());
             model.addAttribute("error", e.getMessage());
@@ -373,6 +355,19 @@ public class CriminalController {
         }
     }
 
+    private static String extensionOf(MultipartFile photo) {
+        String originalFilename = photo.getOriginalFilename();
+        int dot = originalFilename != null ? originalFilename.lastIndexOf('.') : -1;
+        return dot >= 0 ? originalFilename.substring(dot + 1) : "jpg";
+    }
+
+    private void deletePhotoIfUnused(String imageName) throws IOException {
+        if (!criminalService.isPhotoInUse(imageName)) {
+            photoStore.delete(imageName);
+            thumbnailService.deleteThumbnails(imageName);
+        }
+    }
+
     @GetMapping("/error")
     public String handleError(Model model) {
         model.addAttribute("error", "An error occurred. Please try again.");
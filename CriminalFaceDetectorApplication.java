@@ -4,38 +4,41 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationListener;
 import org.springframework.boot.context.event.ApplicationFailedEvent;
 import java.awt.Desktop;
+import java.awt.GraphicsEnvironment;
 import java.net.URI;
 import java.util.concurrent.TimeUnit;
 import java.net.ServerSocket;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import org.springframework.lang.NonNull;
+import org.bytedeco.javacpp.PointerScope;
 import org.bytedeco.opencv.opencv_core.*;
 import static org.bytedeco.opencv.global.opencv_core.*;
 import static org.bytedeco.opencv.global.opencv_imgproc.*;
 import ai.djl.inference.Predictor;
 import ai.djl.modality.cv.Image;
-import ai.djl.modality.cv.ImageFactory;
 import ai.djl.modality.cv.output.DetectedObjects;
-import ai.djl.repository.zoo.Criteria;
-import ai.djl.repository.zoo.ZooModel;
-import ai.djl.training.util.ProgressBar;
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
-import ai.djl.ndarray.NDArray;
-import ai.djl.ndarray.NDManager;
-import ai.djl.modality.cv.transform.Resize;
-import ai.djl.modality.cv.transform.ToTensor;
-import ai.djl.modality.cv.transform.Normalize;
-import ai.djl.modality.cv.translator.SingleShotDetectionTranslator;
 import javax.sound.sampled.*;
+import com.criminaldetector.service.DjlImages;
+import com.criminaldetector.service.FaceModelLoader;
+import com.criminaldetector.service.FaceDetector;
+import com.criminaldetector.service.PredictorPool;
+import com.criminaldetector.service.VideoDetectionRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.criminaldetector")
@@ -43,29 +46,64 @@ import javax.sound.sampled.*;
 @EnableJpaRepositories("com.criminaldetector.repository")
 public class CriminalFaceDetectorApplication {
 
+	private static final Logger logger = LoggerFactory.getLogger(CriminalFaceDetectorApplication.class);
+
 	@Autowired
 	private Environment environment;
 
 	private static final int[] PORTS = { 8080, 8081, 8082, 8083, 8084, 8085 };
+	// Profile for headless deployments: fixed server.port, no browser launch, no alert sound
+	public static final String SERVER_PROFILE = "server";
 	private static final int MIN_FACE_SIZE = 40; // Increased minimum face size for better quality
 	private static final float DETECTION_THRESHOLD = 0.9f; // Increased confidence threshold
 	private static final double MIN_SHARPNESS = 50; // Minimum sharpness threshold
 	private static final double MIN_FACE_RATIO = 0.5; // Minimum ratio of face width to height
-	private ZooModel<Image, DetectedObjects> model;
+
+	// Predictors are not thread-safe, so each call borrows one from a bounded pool
+	@Autowired
+	private PredictorPool predictorPool;
+
+	@Value("${face.model.batch-size:8}")
+	private int batchSize;
 
 	public static void main(String[] args) {
 		try {
-			// Find an available port
-			int port = findAvailablePort();
-			System.out.println("\n------------------------------------");
-			System.out.println("Starting application on port: " + port);
-			System.out.println("------------------------------------\n");
+			// Video mode processes one clip and exits, so it never needs a fixed port or a browser
+			boolean video = VideoDetectionRunner.isVideoMode(args);
+			boolean server = video || isServerMode(args);
+			if (video) {
+				System.setProperty("server.port", "0");
+			} else if (!server) {
+				// Find an available port
+				int port = findAvailablePort();
+				System.out.println("\n------------------------------------");
+				System.out.println("Starting application on port: " + port);
+				System.out.println("------------------------------------\n");
 
-			// Set the server port programmatically
-			System.setProperty("server.port", String.valueOf(port));
+				// Set the server port programmatically
+				System.setProperty("server.port", String.valueOf(port));
+			}
 
 			// Create the application context
 			SpringApplication app = new SpringApplication(CriminalFaceDetectorApplication.class);
+			if (server) {
+				app.setAdditionalProfiles(SERVER_PROFILE);
+			}
+
+			// Keep typical photo uploads in memory so detection can decode them without touching disk,
+			// and leave room for batch uploads of many images or a zip archive
+			app.setDefaultProperties(Map.of(
+				"spring.servlet.multipart.file-size-threshold", "16MB",
+				"spring.servlet.multipart.max-file-size", "256MB",
+				"spring.servlet.multipart.max-request-size", "512MB",
+				// Pipeline metrics for scraping; see DetectionMetrics
+				"management.endpoints.web.exposure.include", "health,info,metrics,prometheus",
+				"management.metrics.tags.application", "criminal-face-detector",
+				// Readiness waits for the background model load and warm-up; see FaceModelLoader and DetectionWarmup
+				"management.endpoint.health.probes.enabled", "true",
+				"management.endpoint.health.group.readiness.include", "readinessState,faceModel,detectionWarmup",
+				// Build the JPA EntityManagerFactory in the background while the rest of the context starts
+				"spring.data.jpa.repositories.bootstrap-mode", "deferred"));
 
 			// Add error listener
 			app.addListeners(new ApplicationListener<ApplicationFailedEvent>() {
@@ -84,7 +122,11 @@ public class CriminalFaceDetectorApplication {
 			});
 
 			// Run the application
-			app.run(args);
+			ConfigurableApplicationContext context = app.run(args);
+			if (video) {
+				// VideoDetectionRunner has finished by now and supplies the exit code
+				System.exit(SpringApplication.exit(context));
+			}
 
 		} catch (Exception e) {
 			System.err.println("\n------------------------------------");
@@ -94,6 +136,29 @@ public class CriminalFaceDetectorApplication {
 		}
 	}
 
+	/**
+	 * Whether to run as a headless server: the {@value #SERVER_PROFILE}
+	 * profile is requested, or there is no display to open a browser on.
+	 */
+	private static boolean isServerMode(String[] args) {
+		List<String> profiles = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--spring.profiles.active=")) {
+				profiles.add(arg.substring("--spring.profiles.active=".length()));
+			}
+		}
+		profiles.add(System.getProperty("spring.profiles.active", ""));
+		profiles.add(System.getenv().getOrDefault("SPRING_PROFILES_ACTIVE", ""));
+		for (String value : profiles) {
+			for (String profile : value.split(",")) {
+				if (profile.trim().equals(SERVER_PROFILE)) {
+					return true;
+				}
+			}
+		}
+		return GraphicsEnvironment.isHeadless();
+	}
+
 	private static int findAvailablePort() {
 		System.out.println("Checking for available ports...");
 		for (int port : PORTS) {
@@ -110,6 +175,9 @@ public class CriminalFaceDetectorApplication {
 
 	@EventListener(ApplicationReadyEvent.class)
 	public void openBrowserAfterStartup() {
+		if (environment.acceptsProfiles(Profiles.of(SERVER_PROFILE))) {
+			return;
+		}
 		// Get the actual port that the server is running on
 		String port = environment.getProperty("local.server.port");
 		String url = "http://localhost:" + port + "/detect";
@@ -183,33 +251,12 @@ public class CriminalFaceDetectorApplication {
 		}).start();
 	}
 
-	@PostConstruct
-	public void initModel() throws Exception {
-		Criteria<Image, DetectedObjects> criteria = Criteria.builder()
-				.setTypes(Image.class, DetectedObjects.class)
-				.optEngine("PyTorch")
-				.optModelUrls("https://resources.djl.ai/test-models/pytorch/retinaface.zip") // Face-only model
-				.optTranslator(SingleShotDetectionTranslator.builder()
-						.addTransform(new Resize(640, 640)) // Resize to standard face input
-						.addTransform(new ToTensor())
-						.addTransform(new Normalize(new float[] { 0.485f, 0.456f, 0.406f },
-								new float[] { 0.229f, 0.224f, 0.225f })) // Standard normalization
-						.optThreshold(0.9f) // Higher threshold to remove false positives
-						.build())
-				.optProgress(new ProgressBar())
-				.build();
-
-		model = criteria.loadModel();
-
-	}
-
 	private void playAlertSound() {
 		try {
 			// Generate a beep tone
 			Tone.sound(1000, 100); // 1000 Hz for 100ms
 		} catch (Exception e) {
-			System.err.println("Failed to play alert sound: " + e.getMessage());
-			e.printStackTrace();
+			logger.warn("Failed to play alert sound: {}", e.getMessage(), e);
 		}
 	}
 
@@ -233,113 +280,159 @@ public class CriminalFaceDetectorApplication {
 				sdl.stop();
 				sdl.close();
 			} catch (Exception e) {
-				System.err.println("Error generating tone: " + e.getMessage());
-				e.printStackTrace();
+				logger.warn("Error generating tone: {}", e.getMessage(), e);
 			}
 		}
 	}
 
+	public int getBatchSize() {
+		return batchSize;
+	}
+
 	public Mat detectFaces(Mat image) {
-		try (Predictor<Image, DetectedObjects> predictor = model.newPredictor()) {
-			// Convert OpenCV Mat to DJL Image
-			try (NDManager manager = NDManager.newBaseManager()) {
-				byte[] data = new byte[image.rows() * image.cols() * image.channels()];
-				image.data().get(data);
-				NDArray array = manager.create(data).reshape(image.rows(), image.cols(), image.channels());
-				Image djlImage = ImageFactory.getInstance().fromNDArray(array);
-
-				// Detect faces
-				DetectedObjects detections = predictor.predict(djlImage);
-
-				// Debug: Print number of detections
-				System.out.println("Number of detections: " + detections.getNumberOfObjects());
-
-				// Draw results
-				RectVector faces = new RectVector();
-				boolean hasValidFace = false;
-
-				for (DetectedObjects.DetectedObject detection : detections.<DetectedObjects.DetectedObject>items()) {
-					if (detection.getProbability() > DETECTION_THRESHOLD) {
-						String detectedClass = detection.getClassName(); // Ensure it detects ONLY faces
-
-						// Debug: Print detected class and probability
-						System.out.println(
-								"Detected class: " + detectedClass + ", Probability: " + detection.getProbability());
-
-						if (!detectedClass.equalsIgnoreCase("face")) {
-							continue; // Ignore non-face objects
-						}
+		return detectFaces(List.of(image)).get(0);
+	}
 
-						ai.djl.modality.cv.output.BoundingBox box = detection.getBoundingBox();
-						int x = (int) (box.getBounds().getX() * image.cols());
-						int y = (int) (box.getBounds().getY() * image.rows());
-						int width = (int) (box.getBounds().getWidth() * image.cols());
-						int height = (int) (box.getBounds().getHeight() * image.rows());
+	/**
+	 * Detects faces in several images, running them through the model in
+	 * batches of {@code face.model.batch-size}, and draws the results onto
+	 * each image.
+	 */
+	public List<Mat> detectFaces(List<Mat> images) {
+		try (PointerScope scope = new PointerScope()) {
+			List<DetectedObjects> detections = predictBatch(images);
+			List<Mat> results = new ArrayList<>(images.size());
+			boolean hasValidFace = false;
+			for (int i = 0; i < images.size(); i++) {
+				Mat image = images.get(i);
+				List<Rect> faces = extractFaces(image, detections.get(i));
+				hasValidFace |= !faces.isEmpty();
+				results.add(drawFaces(image, new RectVector(faces.toArray(new Rect[0]))));
+			}
 
-						Rect face = new Rect(x, y, width, height);
-						if (isGoodQualityFace(image, face)) {
-							faces.push_back(face);
-							hasValidFace = true;
-						}
+			// Play alert only when valid faces are detected
+			if (hasValidFace && !environment.acceptsProfiles(Profiles.of(SERVER_PROFILE))) {
+				logger.debug("Valid face detected - Playing alert sound");
+				playAlertSound();
+			}
+
+			return results;
+		}
+	}
+
+	/**
+	 * Runs the RetinaFace model over the images and returns the raw
+	 * detections for each one, in input order.
+	 */
+	public List<DetectedObjects> predictBatch(List<Mat> images) {
+		Predictor<Image, DetectedObjects> predictor;
+		try {
+			predictor = predictorPool.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for a face model predictor", e);
+		}
+		List<DetectedObjects> detections = new ArrayList<>(images.size());
+		try {
+			for (int from = 0; from < images.size(); from += batchSize) {
+				// Releases the model-sized copies of large frames once their batch has run
+				try (PointerScope scope = new PointerScope()) {
+					List<Image> batch = new ArrayList<>();
+					for (Mat image : images.subList(from, Math.min(images.size(), from + batchSize))) {
+						// Shares the pixels of the Mat or its model-sized copy, both alive until the batch has run
+						batch.add(DjlImages.wrapForModel(image, FaceModelLoader.INPUT_SIZE, FaceModelLoader.INPUT_SIZE));
 					}
+					// The translator resizes every image to the same input size, so they stack into one tensor
+					detections.addAll(predictor.batchPredict(batch));
 				}
+			}
+		} catch (Exception e) {
+			logger.error("Face detection failed: {}", e.getMessage(), e);
+			throw new RuntimeException("Face detection failed", e);
+		} finally {
+			predictorPool.release(predictor);
+		}
+
+		if (logger.isDebugEnabled()) {
+			for (DetectedObjects detection : detections) {
+				logger.debug("Number of detections: {}", detection.getNumberOfObjects());
+			}
+		}
+		return detections;
+	}
+
+	/**
+	 * Converts model output into pixel rectangles for the faces that pass the
+	 * quality checks. The rectangles belong to the caller's PointerScope.
+	 */
+	public List<Rect> extractFaces(Mat image, DetectedObjects detections) {
+		List<Rect> faces = new ArrayList<>();
+		for (DetectedObjects.DetectedObject detection : detections.<DetectedObjects.DetectedObject>items()) {
+			if (detection.getProbability() > DETECTION_THRESHOLD) {
+				String detectedClass = detection.getClassName(); // Ensure it detects ONLY faces
+
+				logger.debug("Detected class: {}, Probability: {}", detectedClass, detection.getProbability());
 
-				// Play alert only when valid faces are detected
-				if (hasValidFace) {
-					System.out.println("Valid face detected - Playing alert sound");
-					playAlertSound();
+				if (!detectedClass.equalsIgnoreCase("face")) {
+					continue; // Ignore non-face objects
 				}
 
-				return drawFaces(image, faces);
+				ai.djl.modality.cv.output.BoundingBox box = detection.getBoundingBox();
+				int x = (int) (box.getBounds().getX() * image.cols());
+				int y = (int) (box.getBounds().getY() * image.rows());
+				int width = (int) (box.getBounds().getWidth() * image.cols());
+				int height = (int) (box.getBounds().getHeight() * image.rows());
+
+				// Boxes of faces at the edge can extend past the image
+				Rect face = FaceDetector.clip(new Rect(x, y, width, height), image);
+				if (face != null && isGoodQualityFace(image, face)) {
+					faces.add(face);
+				}
 			}
-		} catch (Exception e) {
-			System.err.println("Face detection failed: " + e.getMessage());
-			e.printStackTrace();
-			throw new RuntimeException("Face detection failed", e);
 		}
+		return faces;
 	}
 
 	private boolean isGoodQualityFace(Mat image, Rect face) {
-		Mat faceRegion = new Mat(image, face);
+		try (PointerScope scope = new PointerScope()) {
+			Mat faceRegion = new Mat(image, face);
 
-		// Size check
-		if (face.width() < MIN_FACE_SIZE || face.height() < MIN_FACE_SIZE) {
-			return false;
-		}
+			// Size check
+			if (face.width() < MIN_FACE_SIZE || face.height() < MIN_FACE_SIZE) {
+				return false;
+			}
 
-		// Face aspect ratio check
-		double aspectRatio = (double) face.width() / face.height();
-		if (aspectRatio < MIN_FACE_RATIO || aspectRatio > 1.0 / MIN_FACE_RATIO) {
-			return false;
-		}
+			// Face aspect ratio check
+			double aspectRatio = (double) face.width() / face.height();
+			if (aspectRatio < MIN_FACE_RATIO || aspectRatio > 1.0 / MIN_FACE_RATIO) {
+				return false;
+			}
 
-		// Brightness and contrast check
-		Scalar mean = mean(faceRegion);
-		Mat stddev = new Mat();
-		meanStdDev(faceRegion, new Mat(), stddev);
-		double brightness = mean.get(0); // Fixed: Using get() to access Scalar value
-		double contrast = stddev.createIndexer().getDouble(0);
+			// Brightness and contrast check
+			Scalar mean = mean(faceRegion);
+			Mat stddev = new Mat();
+			meanStdDev(faceRegion, new Mat(), stddev);
+			double brightness = mean.get(0); // Fixed: Using get() to access Scalar value
+			double contrast = stddev.createIndexer().getDouble(0);
 
-		if (brightness < 30 || brightness > 250 || contrast < 10) {
-			return false;
-		}
+			if (brightness < 30 || brightness > 250 || contrast < 10) {
+				return false;
+			}
 
-		// Enhanced blur detection using Laplacian variance
-		// Convert image to grayscale
-		Mat gray = new Mat();
-		cvtColor(image, gray, COLOR_BGR2GRAY);
-		// Apply Gaussian blur to reduce noise
-		GaussianBlur(gray, gray, new Size(5, 5), 0);
-		// Apply Canny edge detection to emphasize face contours
-		Mat edges = new Mat();
-		Canny(gray, edges, 100, 200);
-		Mat laplacian = new Mat();
-		Laplacian(gray, laplacian, CV_64F);
-		Mat stddev_lap = new Mat();
-		meanStdDev(laplacian, new Mat(), stddev_lap);
-		double variance = Math.pow(stddev_lap.createIndexer().getDouble(), 2);
-
-		return variance > MIN_SHARPNESS;
+			// Enhanced blur detection using Laplacian variance of the face region only
+			// Convert face to grayscale
+			Mat gray = new Mat();
+			cvtColor(faceRegion, gray, COLOR_BGR2GRAY);
+			// Apply Gaussian blur to reduce noise
+			GaussianBlur(gray, gray, new Size(5, 5), 0);
+			Mat laplacian = new Mat();
+			Laplacian(gray, laplacian, CV_64F);
+			Mat stddev_lap = new Mat();
+			meanStdDev(laplacian, new Mat(), stddev_lap);
+			double variance = Math.pow(stddev_lap.createIndexer().getDouble(), 2);
+
+			return variance > MIN_SHARPNESS;
+		}
 	}
 
 	private Mat drawFaces(Mat image, RectVector faces) {
@@ -351,11 +444,4 @@ public class CriminalFaceDetectorApplication {
 		return image;
 	}
 
-	@PreDestroy
-	public void cleanup() {
-		if (model != null) {
-			model.close();
-		}
-	}
-
 }
@@ -1,9 +1,21 @@
 package com.criminaldetector.repository;
 
 import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.CriminalSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CriminalRepository extends JpaRepository<Criminal, Long> {
+
+    boolean existsByImageName(String imageName);
+
+    Page<CriminalSummary> findAllProjectedBy(Pageable pageable);
+
+    // Keyset page: seeks past the last id seen instead of counting an offset
+    List<CriminalSummary> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 } 
\ No newline at end of file
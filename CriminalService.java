@@ -1,11 +1,21 @@
 package com.criminaldetector.service;
 
 import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.CriminalSummary;
+import org.springframework.data.domain.Page;
 import java.util.List;
+import java.util.Map;
 
 public interface CriminalService {
+    int MAX_PAGE_SIZE = 100;
+
     Criminal saveCriminal(Criminal criminal);
     Criminal getCriminalById(Long id);
     List<Criminal> getAllCriminals();
+    Page<CriminalSummary> getCriminalPage(int page, int size, String sort, String direction);
+    List<CriminalSummary> getCriminalsAfter(Long afterId, int size);
+    WatchlistSnapshot getWatchlist();
+    Map<String, Number> getWatchlistStats();
     void deleteCriminal(Long id);
+    boolean isPhotoInUse(String imageName);
 } 
\ No newline at end of file
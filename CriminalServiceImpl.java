@@ -1,11 +1,21 @@
 package com.criminaldetector.service;
 
 import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.CriminalSummary;
 import com.criminaldetector.repository.CriminalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,16 +23,29 @@ import org.slf4j.LoggerFactory;
 public class CriminalServiceImpl implements CriminalService {
 
     private static final Logger logger = LoggerFactory.getLogger(CriminalServiceImpl.class);
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "age", "gender");
 
     @Autowired
     private CriminalRepository criminalRepository;
 
+    // Bumped after every committed write; a snapshot older than this is rebuilt on next read
+    private final AtomicLong dataVersion = new AtomicLong();
+    private volatile WatchlistSnapshot snapshot;
+    private final Object rebuildLock = new Object();
+
+    private final AtomicLong snapshotHits = new AtomicLong();
+    private final AtomicLong snapshotMisses = new AtomicLong();
+    private final AtomicLong rebuildCount = new AtomicLong();
+    private final AtomicLong rebuildNanosTotal = new AtomicLong();
+    private volatile long lastRebuildNanos;
+
     @Override
     @Transactional
     public Criminal saveCriminal(Criminal criminal) {
         try {
-            logger.info("Attempting to save criminal: {}", criminal.getName());
+            logger.debug("Attempting to save criminal: {}", criminal.getName());
             Criminal savedCriminal = criminalRepository.save(criminal);
+            invalidateWatchlistAfterCommit();
             logger.info("Successfully saved criminal with ID: {}", savedCriminal.getId());
             return savedCriminal;
         } catch (Exception e) {
@@ -35,7 +58,7 @@ public class CriminalServiceImpl implements CriminalService {
     @Transactional(readOnly = true)
     public Criminal getCriminalById(Long id) {
         try {
-            logger.info("Fetching criminal with ID: {}", id);
+            logger.debug("Fetching criminal with ID: {}", id);
             return criminalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Criminal not found with ID: " + id));
         } catch (Exception e) {
@@ -45,23 +68,137 @@ public class CriminalServiceImpl implements CriminalService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<Criminal> getAllCriminals() {
+        return getWatchlist().criminals();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CriminalSummary> getCriminalPage(int page, int size, String sort, String direction) {
+        try {
+            String property = sort != null && SORTABLE_FIELDS.contains(sort) ? sort : "id";
+            Sort.Direction order = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            // Tie-break on id so rows with equal sort keys keep a stable position across pages
+            Sort sorting = Sort.by(order, property);
+            if (!property.equals("id")) {
+                sorting = sorting.and(Sort.by(Sort.Direction.ASC, "id"));
+            }
+            return criminalRepository.findAllProjectedBy(PageRequest.of(Math.max(page, 0), clampPageSize(size), sorting));
+        } catch (Exception e) {
+            logger.error("Error fetching criminal page {}: {}", page, e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch criminals: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CriminalSummary> getCriminalsAfter(Long afterId, int size) {
         try {
-            logger.info("Fetching all criminals");
-            return criminalRepository.findAll();
+            // One extra row tells the caller whether another page follows
+            return criminalRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L,
+                PageRequest.of(0, clampPageSize(size) + 1));
         } catch (Exception e) {
-            logger.error("Error fetching all criminals: {}", e.getMessage(), e);
+            logger.error("Error fetching criminals after ID {}: {}", afterId, e.getMessage(), e);
             throw new RuntimeException("Failed to fetch criminals: " + e.getMessage(), e);
         }
     }
 
+    private static int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Returns the shared snapshot, reloading it only when a write has been
+     * committed since it was built. Not transactional on purpose: a cache hit
+     * never touches the database or takes a connection.
+     */
+    @Override
+    public WatchlistSnapshot getWatchlist() {
+        WatchlistSnapshot current = snapshot;
+        if (current != null && current.version() == dataVersion.get()) {
+            snapshotHits.incrementAndGet();
+            return current;
+        }
+        synchronized (rebuildLock) {
+            current = snapshot;
+            if (current != null && current.version() == dataVersion.get()) {
+                snapshotHits.incrementAndGet();
+                return current;
+            }
+            snapshotMisses.incrementAndGet();
+            try {
+                // Read the version first so a write landing during the load forces another rebuild
+                long version = dataVersion.get();
+                long start = System.nanoTime();
+                WatchlistSnapshot rebuilt = WatchlistSnapshot.of(version, criminalRepository.findAll());
+                lastRebuildNanos = System.nanoTime() - start;
+                rebuildNanosTotal.addAndGet(lastRebuildNanos);
+                rebuildCount.incrementAndGet();
+                snapshot = rebuilt;
+                logger.info("Rebuilt watchlist snapshot v{} with {} criminals in {} ms",
+                    version, rebuilt.size(), String.format("%.1f", lastRebuildNanos / 1_000_000.0));
+                return rebuilt;
+            } catch (Exception e) {
+                logger.error("Error fetching all criminals: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to fetch criminals: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Number> getWatchlistStats() {
+        long hits = snapshotHits.get();
+        long misses = snapshotMisses.get();
+        long rebuilds = rebuildCount.get();
+        WatchlistSnapshot current = snapshot;
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("version", dataVersion.get());
+        stats.put("snapshotVersion", current != null ? current.version() : -1);
+        stats.put("size", current != null ? current.size() : 0);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("rebuilds", rebuilds);
+        stats.put("lastRebuildMs", lastRebuildNanos / 1_000_000.0);
+        stats.put("averageRebuildMs", rebuilds > 0 ? rebuildNanosTotal.get() / 1_000_000.0 / rebuilds : 0.0);
+        return stats;
+    }
+
+    /**
+     * Readers must not see the new version until the write is visible to
+     * them, otherwise a rebuild could cache pre-commit data under it.
+     */
+    private void invalidateWatchlistAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dataVersion.incrementAndGet();
+                }
+            });
+        } else {
+            dataVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isPhotoInUse(String imageName) {
+        try {
+            return criminalRepository.existsByImageName(imageName);
+        } catch (Exception e) {
+            logger.error("Error checking photo {}: {}", imageName, e.getMessage(), e);
+            throw new RuntimeException("Failed to check photo usage: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     @Transactional
     public void deleteCriminal(Long id) {
         try {
-            logger.info("Deleting criminal with ID: {}", id);
+            logger.debug("Deleting criminal with ID: {}", id);
             criminalRepository.deleteById(id);
+            invalidateWatchlistAfterCommit();
             logger.info("Successfully deleted criminal with ID: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting criminal with ID {}: {}", id, e.getMessage(), e);
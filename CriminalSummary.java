@@ -0,0 +1,21 @@
+package com.criminaldetector.model;
+
+/**
+ * Closed projection of {@link Criminal} for listing pages. Only these columns
+ * are selected, so the TEXT crime details are never read for a table row.
+ */
+public interface CriminalSummary {
+    Long getId();
+    String getName();
+    int getAge();
+    String getGender();
+    String getImageName();
+
+    default String getThumbnailUrl() {
+        return getThumbnailUrl(128);
+    }
+
+    default String getThumbnailUrl(int size) {
+        return "/thumbnails/" + size + "/" + getImageName();
+    }
+}
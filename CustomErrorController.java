@@ -1,5 +1,7 @@
 package com.criminaldetector.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.servlet.error.ErrorController;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,6 +13,8 @@ import jakarta.servlet.http.HttpServletRequest;
 @Controller
 public class CustomErrorController implements ErrorController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomErrorController.class);
+
     @RequestMapping("/error")
     public String handleError(HttpServletRequest request, Model model) {
         Object status = request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
@@ -31,7 +35,7 @@ public class CustomErrorController implements ErrorController {
             errorMsg.append(" - ").append(((Exception) exception).getMessage());
         }
         
-        System.err.println("Error details: " + errorMsg.toString()); // Debug log
+        logger.debug("Error details: {}", errorMsg);
         model.addAttribute("error", errorMsg.toString());
         return "detection";
     }
@@ -0,0 +1,358 @@
+package com.criminaldetector.controller;
+
+import com.criminaldetector.service.BatchDetectionResult;
+import com.criminaldetector.service.BatchDetectionService;
+import com.criminaldetector.service.DetectionJob;
+import com.criminaldetector.service.DetectionJobService;
+import com.criminaldetector.service.DetectionResult;
+import com.criminaldetector.service.FaceDetectorRegistry;
+import com.criminaldetector.service.VideoDetectionResult;
+import com.criminaldetector.service.VideoDetectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * JSON API for asynchronous detection. Clients submit an image, a batch or a
+ * video, get a job id back immediately and then poll the job or stream its
+ * completion as a server-sent event.
+ */
+@RestController
+@RequestMapping("/api/detections")
+public class DetectionApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectionApiController.class);
+    private static final long STREAM_TIMEOUT_MS = 120_000;
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "bmp", "webp", "tif", "tiff");
+
+    private record StagedImage(String name, Path file) {
+    }
+
+    @Autowired
+    private DetectionJobService detectionJobService;
+
+    @Autowired
+    private FaceDetectorRegistry faceDetectorRegistry;
+
+    @Autowired
+    private BatchDetectionService batchDetectionService;
+
+    @Autowired
+    private VideoDetectionService videoDetectionService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submit(@RequestParam("image") MultipartFile image,
+                                    @RequestParam(value = "detector", required = false) String detector) {
+        try {
+            if (image == null || image.isEmpty()) {
+                throw new IllegalArgumentException("No image provided");
+            }
+            String contentType = image.getContentType();
+            if (contentType == null || !contentType.startsWith("image/")) {
+                throw new IllegalArgumentException("Invalid file type. Please upload an image file.");
+            }
+            // Reject unknown detectors now rather than failing the job later
+            if (!faceDetectorRegistry.get(detector).isReady()) {
+                return modelLoading();
+            }
+
+            DetectionJob<DetectionResult> job = detectionJobService.submit(image.getBytes(), detector);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/detections/" + job.getId()))
+                .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        } catch (IOException e) {
+            logger.error("Error reading uploaded image: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to read the uploaded image"));
+        }
+    }
+
+    /**
+     * Queues many images as one job, given as repeated {@code images} parts
+     * and/or a zip {@code archive}. The uploads are staged on disk, then
+     * decoded and matched as a pipeline against a single watchlist read, and
+     * the aggregated results become the job's result once the whole batch has
+     * finished. Batches share the job queue with single images, so a full
+     * queue rejects them the same way.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitBatch(@RequestParam(value = "images", required = false) List<MultipartFile> images,
+                                         @RequestParam(value = "archive", required = false) MultipartFile archive,
+                                         @RequestParam(value = "detector", required = false) String detector) {
+        boolean hasImages = images != null && images.stream().anyMatch(image -> !image.isEmpty());
+        boolean hasArchive = archive != null && !archive.isEmpty();
+        Path staging = null;
+        try {
+            if (!hasImages && !hasArchive) {
+                throw new IllegalArgumentException("No images provided");
+            }
+            if (!faceDetectorRegistry.get(detector).isReady()) {
+                return modelLoading();
+            }
+
+            // The parts are gone once this request returns, so the job reads its own copies
+            staging = Files.createTempDirectory("detect-batch-");
+            List<StagedImage> stagedImages = new ArrayList<>();
+            if (hasImages) {
+                if (images.size() > batchDetectionService.getMaxImages()) {
+                    throw new IllegalArgumentException("A batch may contain at most "
+                        + batchDetectionService.getMaxImages() + " images");
+                }
+                for (MultipartFile image : images) {
+                    if (image.isEmpty()) {
+                        continue;
+                    }
+                    String contentType = image.getContentType();
+                    if (contentType == null || !contentType.startsWith("image/")) {
+                        throw new IllegalArgumentException("Invalid file type for " + image.getOriginalFilename());
+                    }
+                    Path file = staging.resolve("image-" + stagedImages.size());
+                    image.transferTo(file);
+                    stagedImages.add(new StagedImage(image.getOriginalFilename(), file));
+                }
+            }
+            Path stagedArchive = null;
+            if (hasArchive) {
+                stagedArchive = staging.resolve("archive.zip");
+                archive.transferTo(stagedArchive);
+            }
+
+            Path batchDir = staging;
+            Path batchArchive = stagedArchive;
+            DetectionJob<BatchDetectionResult> job = detectionJobService.submit(
+                () -> runBatch(detector, stagedImages, batchArchive, batchDir));
+            staging = null;
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/detections/" + job.getId()))
+                .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        } catch (IOException e) {
+            logger.error("Error reading uploaded batch: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to read the uploaded images"));
+        } finally {
+            // Still set only if the batch was never queued
+            deleteStaging(staging);
+        }
+    }
+
+    /**
+     * Feeds the staged uploads into a batch on a job worker. Any failure while
+     * submitting cancels the images already queued before failing the job.
+     */
+    private BatchDetectionResult runBatch(String detector, List<StagedImage> images, Path archive, Path staging)
+            throws IOException, InterruptedException {
+        try {
+            BatchDetectionService.Batch batch = batchDetectionService.start(detector);
+            try {
+                for (StagedImage image : images) {
+                    batch.submit(image.name(), Files.readAllBytes(image.file()));
+                }
+                if (archive != null) {
+                    submitArchive(batch, archive);
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                batch.cancel();
+                throw e;
+            }
+            return batch.await();
+        } finally {
+            deleteStaging(staging);
+        }
+    }
+
+    /**
+     * Queues detection over an uploaded video as a job whose result is the
+     * timeline of matched face tracks with throughput figures. Videos share
+     * the job queue with images and batches, so a long clip holds a detection
+     * worker rather than a servlet thread.
+     */
+    @PostMapping(value = "/video", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> detectVideo(@RequestParam("video") MultipartFile video,
+                                         @RequestParam(value = "detector", required = false) String detector,
+                                         @RequestParam(value = "sampleFps", required = false) Double sampleFps) {
+        Path tempFile = null;
+        try {
+            if (video == null || video.isEmpty()) {
+                throw new IllegalArgumentException("No video provided");
+            }
+            String contentType = video.getContentType();
+            if (contentType != null && !contentType.startsWith("video/")
+                    && !contentType.equals(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+                throw new IllegalArgumentException("Invalid file type. Please upload a video file.");
+            }
+            if (!faceDetectorRegistry.get(detector).isReady()) {
+                return modelLoading();
+            }
+
+            // VideoCapture reads from a path, so unlike stills the upload has to be on disk
+            String name = video.getOriginalFilename();
+            String suffix = name != null && name.lastIndexOf('.') > 0 ? name.substring(name.lastIndexOf('.')) : ".mp4";
+            tempFile = Files.createTempFile("detect-video-", suffix);
+            video.transferTo(tempFile);
+
+            Path clip = tempFile;
+            DetectionJob<VideoDetectionResult> job = detectionJobService.submit(() -> {
+                try {
+                    return videoDetectionService.detect(clip, detector, sampleFps);
+                } finally {
+                    deleteTempFile(clip);
+                }
+            });
+            tempFile = null;
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/detections/" + job.getId()))
+                .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        } catch (IOException e) {
+            logger.error("Error storing uploaded video: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to store the uploaded video"));
+        } finally {
+            // Still set only if the video was never queued
+            deleteTempFile(tempFile);
+        }
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary video {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams image entries out of the zip straight into the batch, so only
+     * the entries currently in the pipeline are held in memory.
+     */
+    private void submitArchive(BatchDetectionService.Batch batch, Path archive)
+            throws IOException, InterruptedException {
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || !isImageName(entry.getName())) {
+                    continue;
+                }
+                batch.submit(entry.getName(), readEntry(zip, entry.getName()));
+            }
+        }
+    }
+
+    private byte[] readEntry(InputStream in, String name) throws IOException {
+        int limit = batchDetectionService.getMaxImageBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > limit) {
+                // Checked while inflating; the declared entry size cannot be trusted
+                throw new IllegalArgumentException("Archive entry " + name + " exceeds " + limit + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private ResponseEntity<?> tooManyRequests() {
+        logger.warn("Detection queue full ({} waiting), rejecting request", detectionJobService.getQueueDepth());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", "Too many detection requests in progress. Please retry shortly."));
+    }
+
+    private void deleteStaging(Path staging) {
+        if (staging == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(staging)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Could not delete staged uploads in {}: {}", staging, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> modelLoading() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(Map.of("error", "The face detection model is still loading. Please retry shortly."));
+    }
+
+    private static boolean isImageName(String name) {
+        String base = name.substring(name.lastIndexOf('/') + 1);
+        int dot = base.lastIndexOf('.');
+        // Skip dot-files such as the __MACOSX/._photo.jpg resource forks
+        return !base.startsWith(".") && dot > 0
+            && IMAGE_EXTENSIONS.contains(base.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DetectionJob<?>> getJob(@PathVariable String id) {
+        DetectionJob<?> job = detectionJobService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Streams the job as a single "result" event once it has finished.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id) {
+        DetectionJob<?> job = detectionJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        CompletableFuture<Void> delivery = job.getCompletion().thenAccept(finished -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(finished, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                // The emitter finished between the job completing and the send; the client can still poll
+                logger.debug("Result stream for job {} already closed: {}", id, e.getMessage());
+            }
+        });
+        // Once the stream times out or closes, a job finishing later must not send to it
+        Runnable detach = () -> delivery.cancel(false);
+        emitter.onTimeout(detach);
+        emitter.onCompletion(detach);
+        emitter.onError(error -> detach.run());
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,81 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code detectCriminal} and single-face matching against
+ * synthetic watchlists of increasing size. The probe shows three watchlist
+ * faces; pass {@code -p probeImage=<file>} to time a real photo instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int watchlistSize;
+
+    @Param({"flat", "ivf"})
+    public String index;
+
+    @Param({""})
+    public String probeImage;
+
+    private BenchmarkContext context;
+    private FaceDetectionService service;
+    private Map<Long, Criminal> watchlist;
+    private byte[] probe;
+    private Mat faceScene;
+    private Rect faceRect;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(watchlistSize, Map.of("face.index.type", index));
+        service = context.faceDetectionService();
+        watchlist = context.watchlist();
+
+        long last = watchlistSize - 1;
+        try (PointerScope scope = new PointerScope()) {
+            probe = probeImage.isEmpty()
+                ? SyntheticImages.encodeJpeg(SyntheticImages.scene(1280, 720, 0, last / 2, last))
+                : Files.readAllBytes(Paths.get(probeImage));
+
+            // A lone enhanced face for timing the match stage without detection
+            Mat face = SyntheticImages.face(FaceDetectionService.TEMPLATE_SIZE * 2, last / 2);
+            faceScene = new Mat();
+            service.enhance(face, faceScene, new Mat());
+            scope.detach(faceScene);
+        }
+        faceRect = new Rect(0, 0, faceScene.cols(), faceScene.rows());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        faceScene.close();
+        faceRect.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Criminal> detectCriminal() throws Exception {
+        return service.detectCriminal(probe, null, new DetectionTimings());
+    }
+
+    @Benchmark
+    public FaceResult matchFace() {
+        return service.matchFace(faceScene, faceRect, watchlist, new DetectionTimings());
+    }
+}
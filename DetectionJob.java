@@ -0,0 +1,52 @@
+package com.criminaldetector.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous detection request and, once it has run, its outcome: a
+ * {@link DetectionResult} for a single image, or the aggregate result of a
+ * batch or a video.
+ */
+@Getter
+public class DetectionJob<T> {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant completedAt;
+    private volatile T result;
+    private volatile String error;
+
+    @JsonIgnore
+    private final CompletableFuture<DetectionJob<T>> completion = new CompletableFuture<>();
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void complete(T result) {
+        this.result = result;
+        this.completedAt = Instant.now();
+        this.status = Status.COMPLETED;
+        completion.complete(this);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.completedAt = Instant.now();
+        this.status = Status.FAILED;
+        completion.complete(this);
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
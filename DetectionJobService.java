@@ -0,0 +1,118 @@
+package com.criminaldetector.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs detection requests on a bounded worker pool so bursts queue up here
+ * instead of holding servlet threads. Submissions beyond the queue capacity
+ * are rejected with a {@link RejectedExecutionException}.
+ */
+@Service
+public class DetectionJobService {
+    private static final Logger logger = LoggerFactory.getLogger(DetectionJobService.class);
+
+    @Autowired
+    private FaceDetectionService faceDetectionService;
+
+    // 0 means one worker per core
+    @Value("${detection.jobs.workers:0}")
+    private int workers;
+
+    @Value("${detection.jobs.queue-capacity:64}")
+    private int queueCapacity;
+
+    // How long finished jobs stay available for polling
+    @Value("${detection.jobs.retention-minutes:10}")
+    private long retentionMinutes;
+
+    private final Map<String, DetectionJob<?>> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "detection-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Detection job pool started with {} workers and a queue of {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues detection of an encoded image.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public DetectionJob<DetectionResult> submit(byte[] imageData, String detectorName) {
+        return submit(() -> faceDetectionService.analyze(imageData, detectorName, new DetectionTimings()));
+    }
+
+    /**
+     * Queues other detection work, such as a whole batch, on the same pool,
+     * so it shares the queue bound with single images.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> DetectionJob<T> submit(Callable<T> task) {
+        removeExpiredJobs();
+        DetectionJob<T> job = new DetectionJob<>();
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public DetectionJob<?> getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> void run(DetectionJob<T> job, Callable<T> task) {
+        job.markRunning();
+        try {
+            job.complete(task.call());
+        } catch (Exception e) {
+            logger.error("Detection job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail(e.getMessage() != null ? e.getMessage() : "Detection failed");
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.isDone() && job.getCompletedAt().isBefore(cutoff));
+    }
+}
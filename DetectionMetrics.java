@@ -0,0 +1,110 @@
+package com.criminaldetector.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes detection pipeline metrics to Micrometer. Stage timings are
+ * taken from each request's {@link DetectionTimings}, so the numbers match
+ * what the result page and logs report.
+ */
+@Component
+public class DetectionMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Counter images;
+    private final Counter matches;
+    private final DistributionSummary facesPerImage;
+    private final Counter templateHits;
+    private final Counter templateMisses;
+
+    public DetectionMetrics(MeterRegistry registry, NativeMemoryMonitor nativeMemoryMonitor,
+                            CriminalService criminalService) {
+        this.registry = registry;
+        images = Counter.builder("detection.images")
+            .description("Images run through face detection")
+            .register(registry);
+        matches = Counter.builder("detection.matches")
+            .description("Distinct watchlist matches reported")
+            .register(registry);
+        facesPerImage = DistributionSummary.builder("detection.faces.per.image")
+            .description("Faces found per analysed image")
+            .publishPercentileHistogram()
+            .register(registry);
+
+        templateHits = Counter.builder("face.template.cache.requests").tag("result", "hit").register(registry);
+        templateMisses = Counter.builder("face.template.cache.requests").tag("result", "miss").register(registry);
+        Gauge.builder("face.template.cache.hit.ratio", this, DetectionMetrics::templateHitRatio)
+            .description("Share of template lookups served from memory")
+            .register(registry);
+
+        FunctionCounter.builder("watchlist.snapshot.requests", criminalService, s -> stat(s, "hits"))
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("watchlist.snapshot.requests", criminalService, s -> stat(s, "misses"))
+            .tag("result", "miss").register(registry);
+        Gauge.builder("watchlist.snapshot.rebuild.last", criminalService, s -> stat(s, "lastRebuildMs"))
+            .baseUnit("milliseconds").register(registry);
+        Gauge.builder("watchlist.size", criminalService, s -> stat(s, "size")).register(registry);
+
+        Gauge.builder("javacpp.memory.tracked", nativeMemoryMonitor, NativeMemoryMonitor::getTrackedBytes)
+            .description("Native memory allocated through JavaCPP and not yet released")
+            .baseUnit("bytes").register(registry);
+        Gauge.builder("javacpp.pointers.tracked", nativeMemoryMonitor, NativeMemoryMonitor::getTrackedCount)
+            .register(registry);
+        Gauge.builder("process.memory.physical", nativeMemoryMonitor, NativeMemoryMonitor::getPhysicalBytes)
+            .description("Resident set size of the process")
+            .baseUnit("bytes").register(registry);
+    }
+
+    /**
+     * Records one analysed image: every stage in its timings plus the number
+     * of faces found and criminals matched.
+     */
+    public void recordDetection(DetectionTimings timings, int faces, int matchCount) {
+        recordStages(timings);
+        images.increment();
+        facesPerImage.record(faces);
+        matches.increment(matchCount);
+    }
+
+    public void recordStages(DetectionTimings timings) {
+        timings.getStageNanos().forEach((stage, nanos) -> stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    public void templateCacheHit() {
+        templateHits.increment();
+    }
+
+    public void templateCacheMiss() {
+        templateMisses.increment();
+    }
+
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, name -> Timer.builder("detection.stage")
+            .description("Time spent per detection pipeline stage")
+            .tag("stage", name)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    private double templateHitRatio() {
+        double hits = templateHits.count();
+        double total = hits + templateMisses.count();
+        return total > 0 ? hits / total : 0;
+    }
+
+    private static double stat(CriminalService criminalService, String name) {
+        Number value = criminalService.getWatchlistStats().get(name);
+        return value != null ? value.doubleValue() : 0;
+    }
+}
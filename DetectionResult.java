@@ -0,0 +1,28 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of running detection on one image.
+ *
+ * @param faces    every detected face, in detection order
+ * @param matches  distinct matched criminals, in the order they were first matched
+ * @param timingsMs latency of each pipeline stage in milliseconds
+ */
+public record DetectionResult(List<FaceResult> faces, @JsonIgnore List<Criminal> matches,
+                              Map<String, Double> timingsMs) {
+
+    /**
+     * The matches as serialized in API responses, which never carry the
+     * entities themselves.
+     */
+    @JsonProperty("matches")
+    public List<MatchedCriminal> matchedCriminals() {
+        return matches.stream().map(MatchedCriminal::of).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.criminaldetector.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates wall-clock time per pipeline stage for a single detection
+ * request. Stages recorded more than once, for example per face, are summed.
+ */
+public class DetectionTimings {
+
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final boolean recorded;
+
+    public DetectionTimings() {
+        this(true);
+    }
+
+    private DetectionTimings(boolean recorded) {
+        this.recorded = recorded;
+    }
+
+    /**
+     * Timings for internal passes, such as warm-up, whose detections must not
+     * show up in the exported metrics or the detection trace.
+     */
+    public static DetectionTimings unrecorded() {
+        return new DetectionTimings(false);
+    }
+
+    public boolean isRecorded() {
+        return recorded;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(String stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    public synchronized void record(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    public synchronized Map<String, Long> getStageNanos() {
+        return new LinkedHashMap<>(stageNanos);
+    }
+
+    public synchronized Map<String, Double> toMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> millis.put(stage, nanos / 1_000_000.0));
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        toMillis().forEach((stage, ms) -> {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(stage).append('=').append(String.format("%.1fms", ms));
+        });
+        return builder.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one structured JSON line per sampled detection to the
+ * {@code detection.trace} logger, carrying the detector, face and match
+ * counts and the per-stage timings. Unsampled requests cost a single random
+ * draw; nothing is formatted unless the record is actually written.
+ */
+@Component
+public class DetectionTraceLogger {
+
+    private static final Logger trace = LoggerFactory.getLogger("detection.trace");
+
+    @Value("${detection.trace.sample-rate:0.01}")
+    private double sampleRate;
+
+    public void trace(String detectorName, DetectionTimings timings, List<FaceResult> faces,
+                      List<Criminal> matches) {
+        if (sampleRate <= 0 || !trace.isInfoEnabled()) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"ts\":").append(System.currentTimeMillis());
+        json.append(",\"thread\":");
+        appendString(json, Thread.currentThread().getName());
+        json.append(",\"detector\":");
+        appendString(json, detectorName);
+        json.append(",\"faces\":").append(faces.size());
+        json.append(",\"matches\":[");
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(matches.get(i).getId());
+        }
+        json.append("],\"stagesMs\":{");
+        double totalMs = 0;
+        boolean first = true;
+        for (Map.Entry<String, Double> stage : timings.toMillis().entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, stage.getKey());
+            json.append(':').append(String.format(Locale.ROOT, "%.3f", stage.getValue()));
+            totalMs += stage.getValue();
+        }
+        json.append("},\"stageSumMs\":").append(String.format(Locale.ROOT, "%.3f", totalMs)).append('}');
+        trace.info(json.toString());
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,171 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.criminal_face_detector.CriminalFaceDetectorApplication;
+import com.criminaldetector.model.Criminal;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes synthetic images through the full detection path once the
+ * application is up, so native library loading, PyTorch graph set-up and JIT
+ * compilation happen before real traffic instead of on the first requests.
+ * Warm-up passes use unrecorded timings, so they stay out of the exported
+ * detection metrics and the trace. Thread-local state, such as the cascade
+ * classifier each thread loads for Haar detection, is only set up for the
+ * warm-up thread; request threads still create their own on first use.
+ * Also a readiness health indicator: the instance is reported ready only
+ * after warm-up has finished.
+ */
+@Component("detectionWarmup")
+public class DetectionWarmup implements HealthIndicator {
+    private static final Logger logger = LoggerFactory.getLogger(DetectionWarmup.class);
+
+    enum State { PENDING, RUNNING, DONE, FAILED, DISABLED }
+
+    @Autowired
+    private FaceDetectionService faceDetectionService;
+
+    @Autowired
+    private FaceDetectorRegistry faceDetectorRegistry;
+
+    @Autowired
+    private FaceModelLoader faceModelLoader;
+
+    @Autowired
+    private CriminalFaceDetectorApplication faceModel;
+
+    @Value("${detection.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${detection.warmup.iterations:10}")
+    private int iterations;
+
+    // Empty means every registered detector
+    @Value("${detection.warmup.detectors:}")
+    private List<String> detectors;
+
+    private volatile State state = State.PENDING;
+    private final Map<String, Object> summary = new LinkedHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || iterations <= 0) {
+            state = State.DISABLED;
+            return;
+        }
+        // Wait for the model either way: detectors that still cannot run are skipped
+        faceModelLoader.whenSettled().thenRunAsync(this::run, task -> {
+            Thread thread = new Thread(task, "detection-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private void run() {
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        try {
+            try (PointerScope scope = new PointerScope()) {
+                // Decoded once, so imdecode is warmed without repeating it every pass
+                List<Mat> probes = new ArrayList<>();
+                for (Mat scene : List.of(SyntheticImages.scene(640, 480, 1), SyntheticImages.scene(1280, 720, 2, 3, 4))) {
+                    byte[] jpeg = SyntheticImages.encodeJpeg(scene);
+                    Mat probe = faceDetectionService.decode(jpeg, DetectionTimings.unrecorded());
+                    scope.attach(probe);
+                    probes.add(probe);
+                }
+                // One snapshot read for the whole warm-up; it builds the snapshot the first request would build
+                Map<Long, Criminal> watchlist = faceDetectionService.loadWatchlist(DetectionTimings.unrecorded());
+                warmUpDetectors(probes, watchlist);
+            }
+
+            // Full batches go through a different tensor shape than the single-image calls above
+            if (faceModelLoader.isReady()) {
+                try (PointerScope scope = new PointerScope()) {
+                    List<Mat> crops = new ArrayList<>();
+                    for (int i = 0; i < faceModel.getBatchSize(); i++) {
+                        crops.add(SyntheticImages.face(160, i));
+                    }
+                    for (int i = 0; i < iterations; i++) {
+                        faceModel.predictBatch(crops);
+                    }
+                }
+            }
+
+            state = State.DONE;
+            logger.info("Detection warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; it must not keep the instance out of rotation
+            state = State.FAILED;
+            synchronized (summary) {
+                summary.put("error", String.valueOf(e.getMessage()));
+            }
+            logger.warn("Detection warm-up failed after {} ms: {}",
+                (System.nanoTime() - start) / 1_000_000, e.getMessage(), e);
+        }
+    }
+
+    private void warmUpDetectors(List<Mat> probes, Map<Long, Criminal> watchlist) throws IOException {
+        for (String name : detectorNames()) {
+            FaceDetector detector = faceDetectorRegistry.get(name);
+            if (!detector.isReady()) {
+                logger.warn("Skipping warm-up of detector {}, it is not ready", name);
+                continue;
+            }
+            long first = 0;
+            long last = 0;
+            for (int i = 0; i < iterations; i++) {
+                long iterationStart = System.nanoTime();
+                for (Mat probe : probes) {
+                    faceDetectionService.analyze(probe, name, watchlist, DetectionTimings.unrecorded());
+                }
+                last = System.nanoTime() - iterationStart;
+                if (i == 0) {
+                    first = last;
+                }
+            }
+            synchronized (summary) {
+                summary.put(name, Map.of("firstMs", first / 1_000_000, "lastMs", last / 1_000_000));
+            }
+            logger.info("Warmed up detector {}: first pass {} ms, last pass {} ms",
+                name, first / 1_000_000, last / 1_000_000);
+        }
+    }
+
+    private List<String> detectorNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : detectors) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names.isEmpty() ? new ArrayList<>(faceDetectorRegistry.getNames()) : names;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = state == State.PENDING || state == State.RUNNING
+            ? Health.outOfService()
+            : Health.up();
+        builder.withDetail("state", state);
+        synchronized (summary) {
+            builder.withDetails(summary);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.criminaldetector.controller;
+
+import com.criminaldetector.service.CriminalService;
+import com.criminaldetector.service.NativeMemoryMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    @Autowired
+    private NativeMemoryMonitor nativeMemoryMonitor;
+
+    @Autowired
+    private CriminalService criminalService;
+
+    @GetMapping("/native-memory")
+    public Map<String, Long> nativeMemory() {
+        return nativeMemoryMonitor.snapshot();
+    }
+
+    @GetMapping("/watchlist")
+    public Map<String, Number> watchlist() {
+        return criminalService.getWatchlistStats();
+    }
+}
@@ -0,0 +1,71 @@
+package com.criminaldetector.service;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Size;
+
+import java.nio.ByteBuffer;
+
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+
+/**
+ * Hands JavaCV images to DJL without copying their pixels. DJL's OpenCV
+ * image factory wraps an {@code org.opencv.core.Mat}, and that Mat can be a
+ * header over the native buffer of the JavaCV Mat, so no heap array or
+ * intermediate NDArray is created.
+ *
+ * <p>DJL still copies when the translator turns the image into an NDArray:
+ * {@code toNDArray} converts BGR to RGB and then reads the pixels into a heap
+ * array. {@link #wrapForModel} keeps that copy small by shrinking the frame
+ * to the model input first.
+ */
+public final class DjlImages {
+
+    private DjlImages() {
+    }
+
+    /**
+     * Wraps an 8-bit BGR image as a DJL {@link Image} that shares its pixel
+     * buffer. The returned image is only valid while {@code image} is alive
+     * and unchanged, so callers must finish inference before releasing it.
+     * Images that are not continuous in memory, such as ROIs, are copied once.
+     */
+    public static Image wrap(Mat image) {
+        // Make sure the OpenCV Java bindings are loaded before creating a Mat with them
+        ImageFactory factory = ImageFactory.getInstance();
+        org.opencv.core.Mat header;
+        if (image.isContinuous()) {
+            long size = image.total() * image.elemSize();
+            ByteBuffer pixels = image.data().capacity(size).asByteBuffer();
+            header = new org.opencv.core.Mat(image.rows(), image.cols(), image.type(), pixels);
+        } else {
+            // The header would outlive a temporary continuous copy, so copy into OpenCV-owned memory instead
+            try (Mat copy = image.clone()) {
+                byte[] data = new byte[(int) (copy.total() * copy.elemSize())];
+                copy.data().get(data);
+                header = new org.opencv.core.Mat(image.rows(), image.cols(), image.type());
+                header.put(0, 0, data);
+            }
+        }
+        return factory.fromImage(header);
+    }
+
+    /**
+     * Like {@link #wrap(Mat)}, but first shrinks images larger than the
+     * model input to {@code width} x {@code height}, as the translator's
+     * resize would. Detections are normalised to the image, so their
+     * coordinates do not change, while the copies made by {@code toNDArray}
+     * shrink to the input size whatever the frame size. The resized copy
+     * belongs to the caller's PointerScope and must outlive inference.
+     */
+    public static Image wrapForModel(Mat image, int width, int height) {
+        if ((long) image.cols() * image.rows() <= (long) width * height) {
+            return wrap(image);
+        }
+        Mat resized = new Mat();
+        resize(image, resized, new Size(width, height), 0, 0, INTER_AREA);
+        return wrap(resized);
+    }
+}
@@ -1,85 +1,283 @@
 package com.criminaldetector.service;
 
 import com.criminaldetector.model.Criminal;
+import com.criminaldetector.model.FaceEmbedding;
+import com.criminaldetector.repository.FaceEmbeddingRepository;
+import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.PointerScope;
 import org.bytedeco.opencv.opencv_core.*;
-import org.bytedeco.opencv.opencv_objdetect.CascadeClassifier;
 import static org.bytedeco.opencv.global.opencv_imgcodecs.*;
 import static org.bytedeco.opencv.global.opencv_imgproc.*;
 import static org.bytedeco.opencv.global.opencv_core.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.core.io.ClassPathResource;
+import jakarta.annotation.PostConstruct;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class FaceDetectionService {
     private static final Logger logger = LoggerFactory.getLogger(FaceDetectionService.class);
-    private static final String UPLOAD_DIR = "src/main/resources/static/uploads";
     private static final double SIMILARITY_THRESHOLD = 0.75; // Increased threshold for better accuracy
-    private static final int MIN_FACE_SIZE = 80; // Minimum face size for detection
-    private static final double SCALE_FACTOR = 1.05; // More precise scaling
-    private static final int MIN_NEIGHBORS = 4; // Increased for better quality detections
-    private final CascadeClassifier faceDetector;
-    private final ConcurrentHashMap<String, Mat> criminalEmbeddings;
+    static final int TEMPLATE_SIZE = 150; // Canonical side length of probe faces and stored templates
+    private static final int FEATURE_SIZE = 32; // Side length of the downsampled face used for indexing
+    public static final int FEATURE_VECTOR_LENGTH = FEATURE_SIZE * FEATURE_SIZE;
+    // Keyed by criminal id. Templates are TEMPLATE_SIZE square and never written
+    // after creation, so concurrent readers can share them without locking. Each
+    // holds one native reference for the cache and one per in-flight reader,
+    // so eviction never frees a Mat in use.
+    private final ConcurrentHashMap<Long, Mat> criminalEmbeddings;
+    private final ReadWriteLock templateLock = new ReentrantReadWriteLock();
     
     @Autowired
     private CriminalService criminalService;
 
-    public FaceDetectionService() throws IOException {
-        // Create upload directory if it doesn't exist
-        createUploadDirectory();
+    @Autowired
+    private FaceVectorIndex faceVectorIndex;
 
-        // Initialize OpenCV face detector
-        File cascadeFile = new ClassPathResource("haarcascade_frontalface_default.xml").getFile();
-        faceDetector = new CascadeClassifier(cascadeFile.getAbsolutePath());
-        if (faceDetector.empty()) {
-            throw new IOException("Error loading face detection cascade classifier");
-        }
+    @Autowired
+    private FaceEmbeddingRepository faceEmbeddingRepository;
+
+    @Autowired
+    private FaceDetectorRegistry faceDetectorRegistry;
+
+    @Autowired
+    private HaarFaceDetector haarFaceDetector;
+
+    @Autowired
+    private PhotoStore photoStore;
+
+    @Autowired
+    private DetectionMetrics detectionMetrics;
 
+    @Autowired
+    private DetectionTraceLogger detectionTrace;
+
+    // Number of index candidates re-scored with the full similarity metric
+    @Value("${face.index.top-k:5}")
+    private int candidateCount;
+
+    // Minimum vector correlation for a candidate to be re-scored. The combined
+    // similarity averages SSIM (at most 1) with correlation, so anything scoring
+    // over SIMILARITY_THRESHOLD needs a correlation of at least 0.5; the default
+    // leaves headroom for the difference between the 32x32 vector and full-size templates.
+    @Value("${face.index.min-score:0.4}")
+    private double candidateMinScore;
+
+    @Autowired
+    private FaceMatchingPool faceMatchingPool;
+
+    private ForkJoinPool matchingPool;
+
+    // Watchlist version last checked by ensureIndexed; -1 forces a check
+    private volatile long indexedVersion = -1;
+
+    public FaceDetectionService() {
         criminalEmbeddings = new ConcurrentHashMap<>();
-        logger.info("FaceDetectionService initialized successfully with OpenCV face detection");
+        logger.info("FaceDetectionService initialized successfully");
+    }
+
+    @PostConstruct
+    public void initMatchingPool() {
+        matchingPool = faceMatchingPool.get();
     }
 
     public List<Criminal> detectCriminal(String imagePath) throws IOException {
-        logger.info("Starting face detection for image: {}", imagePath);
-        
-        List<Criminal> allCriminals = criminalService.getAllCriminals();
-        logger.info("Total criminals in database: {}", allCriminals.size());
+        return detectCriminal(imagePath, null, new DetectionTimings());
+    }
+
+    /**
+     * Detects and matches faces using the named {@link FaceDetector}, or the
+     * configured default when {@code detectorName} is null, recording the
+     * latency of each stage in {@code timings}.
+     */
+    public List<Criminal> detectCriminal(String imagePath, String detectorName, DetectionTimings timings)
+            throws IOException {
+        logger.debug("Starting face detection for image: {}", imagePath);
+        try (PointerScope scope = new PointerScope()) {
+            long start = timings.start();
+            Mat image = imread(imagePath);
+            if (image.empty()) {
+                throw new IOException("Error loading image: " + imagePath);
+            }
+            timings.stop("decode", start);
+            return detect(image, detectorName, timings).matches();
+        }
+    }
+
+    /**
+     * Detects criminals in an encoded image (JPEG, PNG, ...) held in memory,
+     * without writing it to disk first.
+     */
+    public List<Criminal> detectCriminal(byte[] imageData, String detectorName, DetectionTimings timings)
+            throws IOException {
+        return analyze(imageData, detectorName, timings).matches();
+    }
+
+    /**
+     * Like {@link #detectCriminal(byte[], String, DetectionTimings)} but also
+     * returns every detected face with its bounding box and match score.
+     */
+    public DetectionResult analyze(byte[] imageData, String detectorName, DetectionTimings timings)
+            throws IOException {
+        try (PointerScope scope = new PointerScope()) {
+            return detectEncoded(new BytePointer(imageData), imageData.length, detectorName, timings);
+        }
+    }
+
+    /**
+     * Same as {@link #detectCriminal(byte[], String, DetectionTimings)}. A
+     * direct buffer is decoded in place without copying its remaining bytes.
+     */
+    public List<Criminal> detectCriminal(ByteBuffer imageData, String detectorName, DetectionTimings timings)
+            throws IOException {
+        try (PointerScope scope = new PointerScope()) {
+            return detectEncoded(new BytePointer(imageData), imageData.remaining(), detectorName, timings).matches();
+        }
+    }
+
+    private DetectionResult detectEncoded(BytePointer data, int length, String detectorName, DetectionTimings timings)
+            throws IOException {
+        logger.debug("Starting face detection for in-memory image of {} bytes", length);
+        return detect(decode(data, length, timings), detectorName, timings);
+    }
+
+    /**
+     * Decodes an image for use on another thread. The caller owns the
+     * returned Mat and must close it when done.
+     */
+    public Mat decode(byte[] imageData, DetectionTimings timings) throws IOException {
+        try (PointerScope scope = new PointerScope()) {
+            Mat image = decode(new BytePointer(imageData), imageData.length, timings);
+            scope.detach(image);
+            return image;
+        }
+    }
+
+    // The decoded image belongs to the caller's PointerScope
+    private Mat decode(BytePointer data, int length, DetectionTimings timings) throws IOException {
+        long start = timings.start();
+        Mat encoded = new Mat(1, length, CV_8UC1, data);
+        Mat image = imdecode(encoded, IMREAD_COLOR);
+        if (image == null || image.empty()) {
+            throw new IOException("Error decoding image");
+        }
+        timings.stop("decode", start);
+        return image;
+    }
+
+    /**
+     * Loads the current watchlist and makes sure every record is indexed, so a
+     * batch of images can be matched against one consistent read.
+     */
+    public Map<Long, Criminal> loadWatchlist(DetectionTimings timings) {
+        long start = timings.start();
+        WatchlistSnapshot watchlist = criminalService.getWatchlist();
+        // Each snapshot version only needs checking against the index once
+        if (watchlist.version() != indexedVersion) {
+            ensureIndexed(watchlist.criminals(), timings.isRecorded());
+            indexedVersion = watchlist.version();
+        }
+        timings.stop("fetch", start);
+        return watchlist.byId();
+    }
+
+    private DetectionResult detect(Mat image, String detectorName, DetectionTimings timings)
+            throws IOException {
+        // Resolve the detector first so an unknown name fails before touching the database
+        faceDetectorRegistry.get(detectorName);
+        return analyze(image, detectorName, loadWatchlist(timings), timings);
+    }
+
+    /**
+     * Detects and matches faces in an already decoded image against a
+     * watchlist from {@link #loadWatchlist(DetectionTimings)}.
+     */
+    public DetectionResult analyze(Mat image, String detectorName, Map<Long, Criminal> watchlist,
+                                   DetectionTimings timings) throws IOException {
+        FaceDetector faceDetector = faceDetectorRegistry.get(detectorName);
+        long stageStart;
+
+        // Every native object allocated below is released when the scope closes
+        try (PointerScope scope = new PointerScope()) {
+            stageStart = timings.start();
+            Mat enhanced = new Mat();
+            Mat gray = new Mat();
+            enhance(image, enhanced, gray);
+            timings.stop("enhance", stageStart);
+
+            stageStart = timings.start();
+            List<Rect> faceRects = faceDetector.detectFaces(enhanced, gray, timings);
+            timings.stop("detect", stageStart);
+
+            if (faceRects.isEmpty()) {
+                logger.debug("No faces detected in the image");
+                if (timings.isRecorded()) {
+                    detectionMetrics.recordDetection(timings, 0, 0);
+                    detectionTrace.trace(detectorName, timings, List.of(), List.of());
+                }
+                return new DetectionResult(List.of(), List.of(), timings.toMillis());
+            }
+
+            // Results come back in face order, so the outcome matches the sequential path
+            stageStart = timings.start();
+            List<FaceResult> faces = matchFaces(enhanced, faceRects, watchlist, timings);
+            List<Criminal> detectedCriminals = new ArrayList<>();
+            for (FaceResult face : faces) {
+                Criminal matchedCriminal = face.criminal() != null ? watchlist.get(face.criminal().id()) : null;
+                if (matchedCriminal != null && !detectedCriminals.contains(matchedCriminal)) {
+                    detectedCriminals.add(matchedCriminal);
+                }
+            }
+            timings.stop("match", stageStart);
 
-        // Load and preprocess the input image
-        Mat image = imread(imagePath);
-        if (image.empty()) {
-            throw new IOException("Error loading image: " + imagePath);
+            if (timings.isRecorded()) {
+                detectionMetrics.recordDetection(timings, faces.size(), detectedCriminals.size());
+                detectionTrace.trace(detectorName, timings, faces, detectedCriminals);
+            }
+            return new DetectionResult(faces, detectedCriminals, timings.toMillis());
         }
+    }
 
-        // Enhance image quality
-        Mat enhanced = new Mat();
+    /**
+     * Normalises brightness and contrast and reduces noise, writing the
+     * enhanced colour image and its grayscale version for the detectors.
+     * Temporaries belong to the caller's PointerScope.
+     */
+    void enhance(Mat image, Mat enhanced, Mat gray) {
         image.copyTo(enhanced);
-        
+
         // Apply image enhancement techniques
         // 1. Normalize brightness and contrast
         Mat ycrcb = new Mat();
         cvtColor(enhanced, ycrcb, COLOR_BGR2YCrCb);
-        
+
         // Split channels using MatVector
         MatVector channels = new MatVector(3);
         split(ycrcb, channels);
-        
+
         // Equalize the luminance channel
         equalizeHist(channels.get(0), channels.get(0));
-        
+
         // Merge channels back
         merge(channels, ycrcb);
         cvtColor(ycrcb, enhanced, COLOR_YCrCb2BGR);
@@ -88,52 +286,54 @@ public class FaceDetectionService {
         GaussianBlur(enhanced, enhanced, new Size(3, 3), 0);
 
         // Convert to grayscale for face detection
-        Mat gray = new Mat();
         cvtColor(enhanced, gray, COLOR_BGR2GRAY);
+    }
 
-        // Detect faces with improved parameters
-        RectVector faces = new RectVector();
-        faceDetector.detectMultiScale(
-            gray, 
-            faces,
-            SCALE_FACTOR,  // More precise scaling
-            MIN_NEIGHBORS, // Increased minimum neighbors
-            0,            // Flags
-            new Size(MIN_FACE_SIZE, MIN_FACE_SIZE), // Minimum face size
-            new Size()    // Maximum face size
-        );
-
-        List<Criminal> detectedCriminals = new ArrayList<>();
-        
-        if (faces.empty()) {
-            logger.warn("No faces detected in the image");
-            return detectedCriminals;
+    private List<FaceResult> matchFaces(Mat enhanced, List<Rect> faceRects, Map<Long, Criminal> watchlist,
+                                        DetectionTimings timings) throws IOException {
+        if (matchingPool == null || faceRects.size() == 1) {
+            return faceRects.stream()
+                .map(faceRect -> matchFace(enhanced, faceRect, watchlist, timings))
+                .collect(Collectors.toList());
         }
+        try {
+            return matchingPool.submit(() -> faceRects.parallelStream()
+                .map(faceRect -> matchFace(enhanced, faceRect, watchlist, timings))
+                .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while matching faces", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error matching faces: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
 
-        // Process each detected face
-        for (long i = 0; i < faces.size(); i++) {
-            Rect faceRect = faces.get(i);
-            
+    /**
+     * Matches one face. Stage times are per face, so with parallel matching
+     * their sum can exceed the wall-clock "match" stage.
+     */
+    FaceResult matchFace(Mat enhanced, Rect faceRect, Map<Long, Criminal> watchlist, DetectionTimings timings) {
+        // PointerScope is per thread, so each worker releases its own allocations
+        try (PointerScope scope = new PointerScope()) {
             // Extract and preprocess the face region
-            Mat face = new Mat(enhanced, faceRect);
-            Mat processedFace = preprocessFace(face);
-            
-            if (processedFace != null) {
-                Criminal matchedCriminal = findMatchingCriminal(processedFace);
-                if (matchedCriminal != null && !detectedCriminals.contains(matchedCriminal)) {
-                    detectedCriminals.add(matchedCriminal);
-                }
-            }
+            long start = timings.start();
+            Rect clipped = FaceDetector.clip(faceRect, enhanced);
+            Mat processedFace = clipped != null ? preprocessFace(new Mat(enhanced, clipped)) : null;
+            timings.stop("preprocess", start);
+            FaceMatch match = processedFace != null ? findMatchingCriminal(processedFace, watchlist, timings) : null;
+            Criminal criminal = match != null ? watchlist.get(match.criminalId()) : null;
+            return new FaceResult(faceRect.x(), faceRect.y(), faceRect.width(), faceRect.height(),
+                criminal != null ? MatchedCriminal.of(criminal) : null,
+                criminal != null ? match.score() : 0.0);
         }
-
-        return detectedCriminals;
     }
 
-    private Mat preprocessFace(Mat face) {
+    // Allocations here belong to the caller's PointerScope, which owns the result
+    Mat preprocessFace(Mat face) {
         try {
-            // Resize to standard size
+            // Resize to the canonical template size so comparisons never resize
             Mat resized = new Mat();
-            resize(face, resized, new Size(256, 256));
+            resize(face, resized, new Size(TEMPLATE_SIZE, TEMPLATE_SIZE));
 
             // Convert to grayscale
             Mat gray = new Mat();
@@ -153,31 +353,104 @@ public class FaceDetectionService {
         }
     }
 
-    private Criminal findMatchingCriminal(Mat faceImage) {
+    private FaceMatch findMatchingCriminal(Mat faceImage, Map<Long, Criminal> watchlist, DetectionTimings timings) {
         double bestMatch = 0;
         Criminal bestCriminal = null;
 
-        for (Criminal criminal : criminalService.getAllCriminals()) {
-            Mat criminalEmbedding = getCriminalEmbedding(criminal);
+        // Narrow the watchlist down to the nearest neighbours, then apply the
+        // full similarity metric so SIMILARITY_THRESHOLD keeps its meaning
+        long start = timings.start();
+        float[] query = toFeatureVector(faceImage);
+        timings.stop("embed", start);
+        start = timings.start();
+        List<FaceMatch> candidates = faceVectorIndex.search(query, candidateCount, candidateMinScore);
+        timings.stop("search", start);
+        start = timings.start();
+        for (FaceMatch candidate : candidates) {
+            Criminal criminal = watchlist.get(candidate.criminalId());
+            if (criminal == null) {
+                continue;
+            }
+            Mat criminalEmbedding = acquireTemplate(criminal, timings.isRecorded());
             if (criminalEmbedding != null) {
-                // Calculate similarity using multiple metrics
-                double similarity = calculateSimilarity(faceImage, criminalEmbedding);
-                
-                if (similarity > SIMILARITY_THRESHOLD && similarity > bestMatch) {
-                    bestMatch = similarity;
-                    bestCriminal = criminal;
+                try {
+                    // Calculate similarity using multiple metrics
+                    double similarity = calculateSimilarity(faceImage, criminalEmbedding);
+
+                    if (similarity > SIMILARITY_THRESHOLD && similarity > bestMatch) {
+                        bestMatch = similarity;
+                        bestCriminal = criminal;
+                    }
+                } finally {
+                    criminalEmbedding.releaseReference();
                 }
             }
         }
+        timings.stop("compare", start);
 
-        return bestCriminal;
+        return bestCriminal != null ? new FaceMatch(bestCriminal.getId(), bestMatch) : null;
     }
 
-    private double calculateSimilarity(Mat face1, Mat face2) {
-        try {
-            // Ensure both images are the same size
+    private void ensureIndexed(List<Criminal> criminals, boolean recordMetrics) {
+        for (Criminal criminal : criminals) {
+            if (!faceVectorIndex.contains(criminal.getId())) {
+                Mat criminalEmbedding = acquireTemplate(criminal, recordMetrics);
+                if (criminalEmbedding != null) {
+                    try {
+                        faceVectorIndex.upsert(criminal.getId(), toFeatureVector(criminalEmbedding));
+                    } finally {
+                        criminalEmbedding.releaseReference();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reduces a grayscale face to a mean-centred, unit-length vector so that
+     * the dot product of two vectors equals their normalised correlation.
+     */
+    static float[] toFeatureVector(Mat face) {
+        float[] vector = new float[FEATURE_VECTOR_LENGTH];
+        try (PointerScope scope = new PointerScope()) {
+            Mat small = new Mat();
+            resize(face, small, new Size(FEATURE_SIZE, FEATURE_SIZE), 0, 0, INTER_AREA);
+            Mat floats = new Mat();
+            small.convertTo(floats, CV_32F);
+            FloatBuffer buffer = floats.createBuffer();
+            buffer.get(vector);
+        }
+
+        double sum = 0;
+        for (float v : vector) {
+            sum += v;
+        }
+        float mean = (float) (sum / vector.length);
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] -= mean;
+            norm += vector[i] * vector[i];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Compares a probe face against a cached template. Templates are shared
+     * read-only between concurrent requests, so only the probe may be touched.
+     */
+    double calculateSimilarity(Mat face1, Mat face2) {
+        try (PointerScope scope = new PointerScope()) {
+            // Probes are normalized to TEMPLATE_SIZE already; this only guards odd inputs
             if (face1.cols() != face2.cols() || face1.rows() != face2.rows()) {
-                resize(face2, face2, face1.size());
+                Mat resizedProbe = new Mat();
+                resize(face1, resizedProbe, face2.size());
+                face1 = resizedProbe;
             }
 
             // Calculate structural similarity
@@ -201,112 +474,304 @@ public class FaceDetectionService {
         }
     }
 
-    private double calculateSSIM(Mat img1, Mat img2) {
-        // Constants for SSIM calculation
-        double k1 = 0.01;
-        double k2 = 0.03;
-        double L = 255.0;
-        double c1 = (k1 * L) * (k1 * L);
-        double c2 = (k2 * L) * (k2 * L);
-
-        // Calculate means
-        Scalar mean1 = mean(img1);
-        Scalar mean2 = mean(img2);
-        double mu1 = mean1.get(0);
-        double mu2 = mean2.get(0);
-
-        // Calculate variances and covariance
-        Mat mu1_sq = new Mat();
-        Mat mu2_sq = new Mat();
-        Mat mu1_mu2 = new Mat();
+    double calculateSSIM(Mat img1, Mat img2) {
+        try (PointerScope scope = new PointerScope()) {
+            // Constants for SSIM calculation
+            double k1 = 0.01;
+            double k2 = 0.03;
+            double L = 255.0;
+            double c1 = (k1 * L) * (k1 * L);
+            double c2 = (k2 * L) * (k2 * L);
+
+            // Calculate means
+            Scalar mean1 = mean(img1);
+            Scalar mean2 = mean(img2);
+            double mu1 = mean1.get(0);
+            double mu2 = mean2.get(0);
+
+            // Calculate variances and covariance
+            Mat mu1_sq = new Mat();
+            Mat mu2_sq = new Mat();
+            Mat mu1_mu2 = new Mat();
         
-        multiply(img1, img1, mu1_sq);
-        multiply(img2, img2, mu2_sq);
-        multiply(img1, img2, mu1_mu2);
+            multiply(img1, img1, mu1_sq);
+            multiply(img2, img2, mu2_sq);
+            multiply(img1, img2, mu1_mu2);
         
-        Scalar sigma1_sq = mean(mu1_sq);
-        Scalar sigma2_sq = mean(mu2_sq);
-        Scalar sigma12 = mean(mu1_mu2);
+            Scalar sigma1_sq = mean(mu1_sq);
+            Scalar sigma2_sq = mean(mu2_sq);
+            Scalar sigma12 = mean(mu1_mu2);
 
-        // Calculate SSIM
-        double ssim = ((2 * mu1 * mu2 + c1) * (2 * sigma12.get(0) + c2)) /
-                     ((mu1 * mu1 + mu2 * mu2 + c1) * (sigma1_sq.get(0) + sigma2_sq.get(0) + c2));
+            // Calculate SSIM
+            double ssim = ((2 * mu1 * mu2 + c1) * (2 * sigma12.get(0) + c2)) /
+                         ((mu1 * mu1 + mu2 * mu2 + c1) * (sigma1_sq.get(0) + sigma2_sq.get(0) + c2));
 
-        return Math.max(0, Math.min(1, ssim));
+            return Math.max(0, Math.min(1, ssim));
+        }
     }
 
-    private Mat getCriminalEmbedding(Criminal criminal) {
-        String imagePath = Paths.get(UPLOAD_DIR, criminal.getImageName()).toString();
-        return criminalEmbeddings.computeIfAbsent(imagePath, path -> {
-            try {
-                Mat image = imread(path);
-                if (image.empty()) {
-                    logger.error("Error loading criminal image: {}", path);
-                    return null;
+    /**
+     * Returns the cached template with an extra native reference held for the
+     * caller, who must call {@code releaseReference()} when done with it.
+     * Cache hits and misses are counted only when {@code recordMetrics} is set.
+     */
+    private Mat acquireTemplate(Criminal criminal, boolean recordMetrics) {
+        Long id = criminal.getId();
+        // Readers share the lock; it only keeps an evicted template from being freed between get and retain
+        templateLock.readLock().lock();
+        try {
+            Mat template = criminalEmbeddings.get(id);
+            if (template != null) {
+                if (recordMetrics) {
+                    detectionMetrics.templateCacheHit();
                 }
+                template.retainReference(); // Held by the caller
+                return template;
+            }
+        } finally {
+            templateLock.readLock().unlock();
+        }
+
+        if (recordMetrics) {
+            detectionMetrics.templateCacheMiss();
+        }
+        // Built outside the map, so the database read and photo decode never hold a bin lock.
+        // Prefer the embedding persisted at enrollment over decoding the photo again
+        Mat built = loadStoredTemplate(criminal);
+        if (built == null) {
+            built = createTemplate(criminal);
+        }
+        if (built == null) {
+            return null;
+        }
+
+        templateLock.readLock().lock();
+        try {
+            Mat existing = criminalEmbeddings.putIfAbsent(id, built);
+            if (existing != null) {
+                // Another thread got there first; use its template and free ours, which nobody references
+                existing.retainReference();
+                built.close();
+                return existing;
+            }
+            built.retainReference(); // Held by the cache
+            built.retainReference(); // Held by the caller
+            return built;
+        } finally {
+            templateLock.readLock().unlock();
+        }
+    }
+
+    private void cacheTemplate(Long criminalId, Mat template) {
+        template.retainReference();
+        Mat previous;
+        templateLock.writeLock().lock();
+        try {
+            previous = criminalEmbeddings.put(criminalId, template);
+        } finally {
+            templateLock.writeLock().unlock();
+        }
+        releaseTemplate(previous);
+    }
+
+    private void evictTemplate(Long criminalId) {
+        Mat previous;
+        templateLock.writeLock().lock();
+        try {
+            previous = criminalEmbeddings.remove(criminalId);
+        } finally {
+            templateLock.writeLock().unlock();
+        }
+        releaseTemplate(previous);
+    }
+
+    private static void releaseTemplate(Mat template) {
+        if (template != null) {
+            template.releaseReference();
+        }
+    }
 
-                // Convert to grayscale and normalize
-                Mat gray = new Mat();
-                cvtColor(image, gray, COLOR_BGR2GRAY);
-                equalizeHist(gray, gray);
+    /**
+     * Computes and persists the face embedding for a newly saved or updated
+     * record and replaces only that record's cache and index entries, so
+     * detection never has to decode its photo.
+     *
+     * @return false if no face could be found in the record's photo
+     */
+    public boolean enrollCriminal(Criminal criminal) {
+        // Edits that keep the same photo can reuse the stored embedding
+        Mat template = loadStoredTemplate(criminal);
+        if (template == null) {
+            template = createTemplate(criminal);
+        }
+        if (template == null) {
+            // Do not keep matching against the previous photo of this record
+            evictTemplate(criminal.getId());
+            faceVectorIndex.remove(criminal.getId());
+            return false;
+        }
+        cacheTemplate(criminal.getId(), template);
+        return true;
+    }
 
-                // Detect face in criminal image
-                RectVector faces = new RectVector();
-                faceDetector.detectMultiScale(gray, faces);
+    /**
+     * Drops the cached, indexed and stored embedding of a deleted record.
+     */
+    public void evictCriminal(Long criminalId) {
+        evictTemplate(criminalId);
+        faceVectorIndex.remove(criminalId);
+        try {
+            faceEmbeddingRepository.deleteById(criminalId);
+        } catch (Exception e) {
+            logger.error("Error deleting stored embedding for criminal {}: {}", criminalId, e.getMessage());
+        }
+    }
 
-                if (faces.empty()) {
-                    logger.error("No face detected in criminal image: {}", path);
-                    return null;
+    /**
+     * Bulk-loads the persisted embeddings into the cache and index once the
+     * application is up, computing them for any record enrolled before
+     * embeddings were stored.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadEmbeddings() {
+        long start = System.currentTimeMillis();
+        Map<Long, FaceEmbedding> stored = faceEmbeddingRepository.findAll().stream()
+            .collect(Collectors.toMap(FaceEmbedding::getCriminalId, Function.identity()));
+
+        int loaded = 0;
+        int computed = 0;
+        for (Criminal criminal : criminalService.getAllCriminals()) {
+            FaceEmbedding embedding = stored.remove(criminal.getId());
+            if (isCurrent(embedding, criminal)) {
+                cacheTemplate(criminal.getId(), decodeTemplate(embedding.getTemplate()));
+                faceVectorIndex.upsert(criminal.getId(), decodeVector(embedding.getFeatureVector()));
+                loaded++;
+            } else {
+                Mat template = createTemplate(criminal);
+                if (template != null) {
+                    cacheTemplate(criminal.getId(), template);
+                    computed++;
                 }
+            }
+        }
+        // Whatever is left belongs to records deleted before eviction removed their rows
+        if (!stored.isEmpty()) {
+            faceEmbeddingRepository.deleteAllById(stored.keySet());
+        }
+        logger.info("Loaded {} stored face embeddings and computed {} missing ones in {} ms",
+            loaded, computed, System.currentTimeMillis() - start);
+    }
 
-                // Get the first (presumably only) face
-                Rect face = faces.get(0);
-                Mat faceImage = new Mat(image, face);
-                Mat normalizedFace = new Mat();
-                resize(faceImage, normalizedFace, new Size(150, 150));
-                cvtColor(normalizedFace, normalizedFace, COLOR_BGR2GRAY);
-                equalizeHist(normalizedFace, normalizedFace);
+    private Mat loadStoredTemplate(Criminal criminal) {
+        try {
+            FaceEmbedding embedding = faceEmbeddingRepository.findById(criminal.getId()).orElse(null);
+            if (!isCurrent(embedding, criminal)) {
+                return null;
+            }
+            faceVectorIndex.upsert(criminal.getId(), decodeVector(embedding.getFeatureVector()));
+            return decodeTemplate(embedding.getTemplate());
+        } catch (Exception e) {
+            logger.error("Error loading stored embedding for criminal {}: {}", criminal.getId(), e.getMessage());
+            return null;
+        }
+    }
 
-                faces.close();
-                gray.close();
-                image.close();
-                faceImage.close();
+    private boolean isCurrent(FaceEmbedding embedding, Criminal criminal) {
+        return embedding != null
+            && embedding.getTemplateSize() == TEMPLATE_SIZE
+            && embedding.getImageName().equals(criminal.getImageName());
+    }
 
-                return normalizedFace;
+    private Mat createTemplate(Criminal criminal) {
+        Mat template = extractTemplate(criminal.getImageName());
+        if (template != null) {
+            float[] vector = toFeatureVector(template);
+            faceVectorIndex.upsert(criminal.getId(), vector);
+            try {
+                faceEmbeddingRepository.save(new FaceEmbedding(criminal.getId(), criminal.getImageName(),
+                    TEMPLATE_SIZE, encodeTemplate(template), encodeVector(vector), null));
             } catch (Exception e) {
-                logger.error("Error processing criminal image {}: {}", path, e.getMessage());
+                logger.error("Error storing embedding for criminal {}: {}", criminal.getId(), e.getMessage());
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Builds a template outside of any caller scope; the returned Mat is owned
+     * by the template cache and released through reference counting.
+     */
+    private Mat extractTemplate(String imageName) {
+        try (PointerScope scope = new PointerScope()) {
+            byte[] data = photoStore.read(imageName);
+            Mat image = imdecode(new Mat(1, data.length, CV_8UC1, new BytePointer(data)), IMREAD_COLOR);
+            if (image == null || image.empty()) {
+                logger.error("Error loading criminal image: {}", imageName);
                 return null;
             }
-        });
+
+            // Convert to grayscale and normalize
+            Mat gray = new Mat();
+            cvtColor(image, gray, COLOR_BGR2GRAY);
+            equalizeHist(gray, gray);
+
+            // Detect face in criminal image with OpenCV's default cascade parameters
+            List<Rect> faces = haarFaceDetector.detect(gray, 1.1, 3, 0);
+
+            if (faces.isEmpty()) {
+                logger.error("No face detected in criminal image: {}", imageName);
+                return null;
+            }
+
+            // Get the first (presumably only) face
+            Rect face = faces.get(0);
+            Mat faceImage = new Mat(image, face);
+            Mat normalizedFace = new Mat();
+            resize(faceImage, normalizedFace, new Size(TEMPLATE_SIZE, TEMPLATE_SIZE));
+            cvtColor(normalizedFace, normalizedFace, COLOR_BGR2GRAY);
+            equalizeHist(normalizedFace, normalizedFace);
+
+            scope.detach(normalizedFace);
+            return normalizedFace;
+        } catch (Exception e) {
+            logger.error("Error processing criminal image {}: {}", imageName, e.getMessage());
+            return null;
+        }
     }
 
-    public void clearEmbeddingsCache() {
-        if (criminalEmbeddings != null) {
-            criminalEmbeddings.clear();
-            logger.info("Criminal embeddings cache cleared");
+    static byte[] encodeTemplate(Mat template) {
+        byte[] data = new byte[(int) template.total()];
+        template.data().get(data);
+        return data;
+    }
+
+    private static Mat decodeTemplate(byte[] data) {
+        try (PointerScope scope = new PointerScope()) {
+            Mat template = new Mat(TEMPLATE_SIZE, TEMPLATE_SIZE, CV_8UC1);
+            template.data().put(data);
+            scope.detach(template);
+            return template;
         }
     }
 
-    private void createUploadDirectory() {
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                
-                // Copy the cascade file to resources if it doesn't exist
-                Path cascadePath = uploadPath.getParent().resolve("haarcascade_frontalface_default.xml");
-                if (!Files.exists(cascadePath)) {
-                    Files.copy(
-                        getClass().getResourceAsStream("/haarcascade_frontalface_default.xml"),
-                        cascadePath,
-                        StandardCopyOption.REPLACE_EXISTING
-                    );
-                }
-                
-                logger.info("Created upload directory: {}", UPLOAD_DIR);
-            }
-        } catch (IOException e) {
-            logger.error("Could not create upload directory: {}", e.getMessage());
+    static byte[] encodeVector(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] decodeVector(byte[] data) {
+        float[] vector = new float[data.length / Float.BYTES];
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public void clearEmbeddingsCache() {
+        if (criminalEmbeddings != null) {
+            criminalEmbeddings.keySet().forEach(this::evictTemplate);
+            faceVectorIndex.clear();
+            indexedVersion = -1;
+            logger.info("Criminal embeddings cache cleared");
         }
     }
-}
\ No newline at end of file
+}
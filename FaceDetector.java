@@ -0,0 +1,52 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+
+import java.util.List;
+
+/**
+ * Strategy for locating faces in a probe image.
+ */
+public interface FaceDetector {
+
+    /**
+     * Name used to select this detector per request.
+     */
+    String getName();
+
+    /**
+     * Finds faces in an enhanced BGR image. The returned rectangles are in
+     * {@code image} pixel coordinates and belong to the caller's PointerScope.
+     *
+     * @param image enhanced BGR image
+     * @param gray  grayscale version of {@code image}
+     * @param timings receives the latency of each stage the detector runs
+     */
+    List<Rect> detectFaces(Mat image, Mat gray, DetectionTimings timings);
+
+    /**
+     * Whether the detector can run now. Detectors backed by a model that
+     * loads in the background report false until it is available.
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Intersects a face rectangle with the image bounds, since model boxes
+     * can reach past the edge and {@code new Mat(image, rect)} rejects them.
+     *
+     * @return the clipped rectangle, or null if nothing of it lies inside the image
+     */
+    static Rect clip(Rect face, Mat image) {
+        int x = Math.max(0, face.x());
+        int y = Math.max(0, face.y());
+        int right = Math.min(image.cols(), face.x() + face.width());
+        int bottom = Math.min(image.rows(), face.y() + face.height());
+        if (right <= x || bottom <= y) {
+            return null;
+        }
+        return new Rect(x, y, right - x, bottom - y);
+    }
+}
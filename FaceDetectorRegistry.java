@@ -0,0 +1,48 @@
+package com.criminaldetector.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up {@link FaceDetector} strategies by name.
+ */
+@Component
+public class FaceDetectorRegistry {
+
+    private final Map<String, FaceDetector> detectors = new LinkedHashMap<>();
+    private final String defaultDetector;
+
+    public FaceDetectorRegistry(List<FaceDetector> detectors,
+                                @Value("${face.detector.default:haar}") String defaultDetector) {
+        for (FaceDetector detector : detectors) {
+            this.detectors.put(detector.getName(), detector);
+        }
+        if (!this.detectors.containsKey(defaultDetector)) {
+            throw new IllegalStateException("Unknown default face detector: " + defaultDetector);
+        }
+        this.defaultDetector = defaultDetector;
+    }
+
+    /**
+     * Returns the named detector, or the configured default when no name is given.
+     */
+    public FaceDetector get(String name) {
+        if (name == null || name.isBlank()) {
+            return detectors.get(defaultDetector);
+        }
+        FaceDetector detector = detectors.get(name.trim().toLowerCase());
+        if (detector == null) {
+            throw new IllegalArgumentException("Unknown face detector: " + name + ". Available: " + detectors.keySet());
+        }
+        return detector;
+    }
+
+    public Set<String> getNames() {
+        return detectors.keySet();
+    }
+}
@@ -0,0 +1,48 @@
+package com.criminaldetector.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Precomputed face template and feature vector for a criminal record, kept in
+ * a side table so listing queries on {@link Criminal} never load the blobs.
+ */
+@Entity
+@Table(name = "criminal_embeddings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaceEmbedding {
+
+    @Id
+    @Column(name = "criminal_id")
+    private Long criminalId;
+
+    // Image the embedding was computed from, used to detect stale rows
+    @Column(name = "image", nullable = false)
+    private String imageName;
+
+    @Column(name = "template_size", nullable = false)
+    private int templateSize;
+
+    // Equalized 8-bit grayscale face, templateSize x templateSize bytes
+    @Lob
+    @Column(name = "template", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] template;
+
+    // Little-endian float32 feature vector used by the face index
+    @Lob
+    @Column(name = "feature_vector", nullable = false, columnDefinition = "BLOB")
+    private byte[] featureVector;
+
+    @Column(name = "updated_at", nullable = false)
+    private java.time.LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = java.time.LocalDateTime.now();
+    }
+}
@@ -0,0 +1,9 @@
+package com.criminaldetector.repository;
+
+import com.criminaldetector.model.FaceEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FaceEmbeddingRepository extends JpaRepository<FaceEmbedding, Long> {
+}
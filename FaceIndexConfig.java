@@ -0,0 +1,31 @@
+package com.criminaldetector.config;
+
+import com.criminaldetector.service.FaceDetectionService;
+import com.criminaldetector.service.FaceMatchingPool;
+import com.criminaldetector.service.FaceVectorIndex;
+import com.criminaldetector.service.FlatFaceVectorIndex;
+import com.criminaldetector.service.IvfFaceVectorIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FaceIndexConfig {
+
+    @Bean
+    public FaceVectorIndex faceVectorIndex(@Value("${face.index.type:flat}") String type,
+                                           @Value("${face.index.shard-size:4096}") int shardSize,
+                                           @Value("${face.index.ivf.nlist:64}") int nlist,
+                                           @Value("${face.index.ivf.nprobe:8}") int nprobe,
+                                           FaceMatchingPool matchingPool) {
+        int dimension = FaceDetectionService.FEATURE_VECTOR_LENGTH;
+        switch (type.toLowerCase()) {
+            case "flat":
+                return new FlatFaceVectorIndex(dimension, shardSize, matchingPool.get());
+            case "ivf":
+                return new IvfFaceVectorIndex(dimension, nlist, nprobe);
+            default:
+                throw new IllegalArgumentException("Unknown face index type: " + type);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.criminaldetector.service;
+
+/**
+ * A single nearest-neighbour hit returned by a {@link FaceVectorIndex}.
+ */
+public record FaceMatch(long criminalId, double score) {
+}
@@ -0,0 +1,43 @@
+package com.criminaldetector.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worker threads for face matching: matching several faces of one image in
+ * parallel and scanning the shards of a large vector index. Sized by
+ * {@code face.matching.parallelism}; with a parallelism of 1 there is no
+ * pool and all matching runs on the calling thread.
+ */
+@Component
+public class FaceMatchingPool {
+    private static final Logger logger = LoggerFactory.getLogger(FaceMatchingPool.class);
+
+    private final ForkJoinPool pool;
+
+    // 0 means one worker per core, 1 disables parallelism
+    public FaceMatchingPool(@Value("${face.matching.parallelism:0}") int parallelism) {
+        int resolved = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = resolved > 1 ? new ForkJoinPool(resolved) : null;
+        logger.info("Face matching parallelism: {}", resolved);
+    }
+
+    /**
+     * Returns the pool, or null when matching is configured to run sequentially.
+     */
+    public ForkJoinPool get() {
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.criminaldetector.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports whether the RetinaFace model has finished loading. It is part of
+ * the readiness group only, so a slow or failed model load takes the
+ * instance out of rotation without failing its liveness probe.
+ */
+@Component("faceModel")
+public class FaceModelHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private FaceModelLoader faceModelLoader;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (faceModelLoader.getState()) {
+            case READY -> Health.up();
+            case LOADING -> Health.outOfService();
+            case FAILED -> Health.down();
+        };
+        return builder.withDetails(faceModelLoader.getStatus()).build();
+    }
+}
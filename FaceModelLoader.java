@@ -0,0 +1,327 @@
+package com.criminaldetector.service;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.output.DetectedObjects;
+import ai.djl.modality.cv.transform.Normalize;
+import ai.djl.modality.cv.transform.Resize;
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.modality.cv.translator.SingleShotDetectionTranslator;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ZooModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Loads the RetinaFace model in the background so the web tier can serve
+ * other routes while it warms up. The model archive is resolved from the
+ * local model directory first, then from a classpath bundle, and only
+ * downloaded when neither is present and downloads are allowed. Whatever the
+ * source, the archive is checked against {@code face.model.sha256} before
+ * it is handed to DJL. A local or bundled archive without a configured
+ * checksum is only logged, but nothing is downloaded unless the checksum is
+ * set.
+ *
+ * <p>Loading starts with the context lifecycle rather than at bean creation,
+ * so a CDS training run or a CRaC checkpoint taken on refresh never touches
+ * the model. Stopping the lifecycle, as a checkpoint does, closes the model
+ * and its predictors, and the next start loads it again.
+ */
+@Component
+public class FaceModelLoader implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(FaceModelLoader.class);
+
+    public enum State { LOADING, READY, FAILED }
+
+    // Side of the square the translator resizes every image to
+    public static final int INPUT_SIZE = 640;
+
+    private static final String NUM_THREADS_PROPERTY = "ai.djl.pytorch.num_threads";
+    private static final String NUM_INTEROP_THREADS_PROPERTY = "ai.djl.pytorch.num_interop_threads";
+
+    @Value("${face.model.dir:models}")
+    private String modelDir;
+
+    @Value("${face.model.file:retinaface.zip}")
+    private String modelFile;
+
+    @Value("${face.model.classpath:models/retinaface.zip}")
+    private String classpathLocation;
+
+    @Value("${face.model.sha256:}")
+    private String expectedSha256;
+
+    @Value("${face.model.download-url:https://resources.djl.ai/test-models/pytorch/retinaface.zip}")
+    private String downloadUrl;
+
+    @Value("${face.model.offline:false}")
+    private boolean offline;
+
+    // Threads PyTorch uses inside one operator; see PredictorPool for how this sizes the pool
+    @Value("${face.model.intra-op-threads:1}")
+    private int intraOpThreads;
+
+    // Threads PyTorch uses to run independent operators of one graph in parallel
+    @Value("${face.model.inter-op-threads:1}")
+    private int interOpThreads;
+
+    private volatile CompletableFuture<ZooModel<Image, DetectedObjects>> model = new CompletableFuture<>();
+    private final List<Runnable> unloadListeners = new CopyOnWriteArrayList<>();
+    private volatile String source;
+    private volatile long loadMillis;
+    private boolean running;
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (offline) {
+            // Keeps DJL from reaching out for engine binaries or model zoo metadata as well
+            System.setProperty("ai.djl.offline", "true");
+        }
+        // Read once when the PyTorch engine initialises, so they must be set before the first load.
+        // Values given on the command line win over the face.model.* settings.
+        setIfAbsent(NUM_THREADS_PROPERTY, String.valueOf(getIntraOpThreads()));
+        setIfAbsent(NUM_INTEROP_THREADS_PROPERTY, String.valueOf(Math.max(1, interOpThreads)));
+        CompletableFuture<ZooModel<Image, DetectedObjects>> target = model;
+        Thread loader = new Thread(() -> load(target), "face-model-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        unloadListeners.forEach(Runnable::run);
+        // A load still in flight is closed as soon as it finishes
+        model.thenAccept(ZooModel::close);
+        model = new CompletableFuture<>();
+        logger.info("Face model unloaded");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server starts and after it stops
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Threads each inference uses: {@value #NUM_THREADS_PROPERTY} when it is
+     * set as a system property, otherwise {@code face.model.intra-op-threads}.
+     */
+    public int getIntraOpThreads() {
+        String explicit = System.getProperty(NUM_THREADS_PROPERTY);
+        if (explicit != null) {
+            try {
+                return Math.max(1, Integer.parseInt(explicit.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid {}={}", NUM_THREADS_PROPERTY, explicit);
+            }
+        }
+        return Math.max(1, intraOpThreads);
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        } else {
+            logger.info("Using {}={} from the system properties", key, System.getProperty(key));
+        }
+    }
+
+    /**
+     * Registers a callback run before the model is closed, for releasing
+     * predictors and other handles created from it.
+     */
+    public void onUnload(Runnable listener) {
+        unloadListeners.add(listener);
+    }
+
+    private void load(CompletableFuture<ZooModel<Image, DetectedObjects>> target) {
+        long start = System.nanoTime();
+        try {
+            Path archive = resolveArchive();
+            Criteria<Image, DetectedObjects> criteria = Criteria.builder()
+                    .setTypes(Image.class, DetectedObjects.class)
+                    .optEngine("PyTorch")
+                    .optModelPath(archive)
+                    .optTranslator(SingleShotDetectionTranslator.builder()
+                            .addTransform(new Resize(INPUT_SIZE, INPUT_SIZE)) // Resize to standard face input
+                            .addTransform(new ToTensor())
+                            .addTransform(new Normalize(new float[] { 0.485f, 0.456f, 0.406f },
+                                    new float[] { 0.229f, 0.224f, 0.225f })) // Standard normalization
+                            .optThreshold(0.9f) // Higher threshold to remove false positives
+                            .build())
+                    .build();
+            ZooModel<Image, DetectedObjects> loaded = criteria.loadModel();
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+            target.complete(loaded);
+            logger.info("Face model loaded from {} in {} ms", source, loadMillis);
+        } catch (Exception e) {
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+            logger.error("Failed to load face model: {}", e.getMessage(), e);
+            target.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Finds the model archive in the local model directory, seeding that
+     * directory from the classpath bundle or the download URL when needed.
+     */
+    private Path resolveArchive() throws IOException {
+        Path local = Paths.get(modelDir).toAbsolutePath().normalize().resolve(modelFile);
+        if (Files.isRegularFile(local)) {
+            source = local.toString();
+            verify(local);
+            return local;
+        }
+
+        ClassPathResource bundled = new ClassPathResource(classpathLocation);
+        if (bundled.exists()) {
+            source = "classpath:" + classpathLocation;
+            // DJL needs a real file, so the bundle is copied into the model directory once
+            try (InputStream in = bundled.getInputStream()) {
+                return install(in, local);
+            }
+        }
+
+        if (offline || downloadUrl == null || downloadUrl.isBlank()) {
+            throw new IOException("Face model not found at " + local + " or classpath:" + classpathLocation
+                    + " and downloads are disabled");
+        }
+        if (expectedSha256 == null || expectedSha256.isBlank()) {
+            // Code fetched over the network is never loaded unverified
+            throw new IOException("Face model not found at " + local + " or classpath:" + classpathLocation
+                    + "; set face.model.sha256 to download it from " + downloadUrl);
+        }
+        source = downloadUrl;
+        logger.info("Face model not found locally, downloading {} to {}", downloadUrl, local);
+        try (InputStream in = URI.create(downloadUrl).toURL().openStream()) {
+            return install(in, local);
+        }
+    }
+
+    private Path install(InputStream in, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.copy(in, temp);
+            verify(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    private void verify(Path archive) throws IOException {
+        String actual = sha256(archive);
+        if (expectedSha256 == null || expectedSha256.isBlank()) {
+            logger.warn("face.model.sha256 is not set; model archive {} has SHA-256 {}", archive, actual);
+            return;
+        }
+        if (!actual.equalsIgnoreCase(expectedSha256.trim())) {
+            throw new IOException("Checksum mismatch for model archive " + archive
+                    + ": expected " + expectedSha256.trim() + " but was " + actual);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the loaded model, or throws {@link IllegalStateException} while
+     * it is still loading or if loading failed.
+     */
+    public ZooModel<Image, DetectedObjects> getModel() {
+        CompletableFuture<ZooModel<Image, DetectedObjects>> current = model;
+        if (!current.isDone()) {
+            throw new IllegalStateException("Face detection model is still loading");
+        }
+        if (current.isCompletedExceptionally()) {
+            throw new IllegalStateException("Face detection model failed to load", exceptionOf(current));
+        }
+        return current.join();
+    }
+
+    /**
+     * Completes once loading has finished, whether or not it succeeded.
+     */
+    public CompletableFuture<Void> whenSettled() {
+        return model.handle((loaded, error) -> null);
+    }
+
+    public State getState() {
+        CompletableFuture<ZooModel<Image, DetectedObjects>> current = model;
+        if (!current.isDone()) {
+            return State.LOADING;
+        }
+        return current.isCompletedExceptionally() ? State.FAILED : State.READY;
+    }
+
+    public boolean isReady() {
+        return getState() == State.READY;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        State state = getState();
+        status.put("state", state);
+        if (source != null) {
+            status.put("source", source);
+        }
+        if (state != State.LOADING) {
+            status.put("loadMillis", loadMillis);
+        }
+        CompletableFuture<ZooModel<Image, DetectedObjects>> current = model;
+        if (state == State.FAILED && current.isDone()) {
+            status.put("error", String.valueOf(exceptionOf(current).getMessage()));
+        }
+        return status;
+    }
+
+    private static Throwable exceptionOf(CompletableFuture<?> future) {
+        return future.handle((value, error) -> error).join();
+    }
+}
@@ -0,0 +1,9 @@
+package com.criminaldetector.service;
+
+/**
+ * A face found in a probe image, in original image pixel coordinates, with
+ * the criminal it matched and the similarity score, or a null criminal and a
+ * score of 0 when nothing cleared the similarity threshold.
+ */
+public record FaceResult(int x, int y, int width, int height, MatchedCriminal criminal, double score) {
+}
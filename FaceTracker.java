@@ -0,0 +1,150 @@
+package com.criminaldetector.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Greedy IoU tracker that links face boxes across sampled video frames, so a
+ * face seen on consecutive frames is matched against the watchlist once per
+ * track rather than once per frame. Not thread-safe; one instance per video.
+ */
+class FaceTracker {
+
+    static class Track {
+        private final int id;
+        private int x, y, width, height;
+        private final long firstFrame;
+        private final double firstSeenMs;
+        private long lastFrame;
+        private double lastSeenMs;
+        private int missed;
+        private int framesSinceMatch;
+        private FaceResult match;
+
+        private Track(int id, int[] box, long frame, double timestampMs) {
+            this.id = id;
+            this.firstFrame = frame;
+            this.firstSeenMs = timestampMs;
+            update(box, frame, timestampMs);
+        }
+
+        private void update(int[] box, long frame, double timestampMs) {
+            x = box[0];
+            y = box[1];
+            width = box[2];
+            height = box[3];
+            lastFrame = frame;
+            lastSeenMs = timestampMs;
+            missed = 0;
+        }
+
+        int getId() { return id; }
+        int getX() { return x; }
+        int getY() { return y; }
+        int getWidth() { return width; }
+        int getHeight() { return height; }
+        long getFirstFrame() { return firstFrame; }
+        long getLastFrame() { return lastFrame; }
+        double getFirstSeenMs() { return firstSeenMs; }
+        double getLastSeenMs() { return lastSeenMs; }
+        FaceResult getMatch() { return match; }
+    }
+
+    private final double iouThreshold;
+    private final int maxMissed;
+    private final int rematchInterval;
+    private final List<Track> active = new ArrayList<>();
+    private final List<Track> finished = new ArrayList<>();
+    private int nextId = 1;
+
+    /**
+     * @param iouThreshold    minimum overlap for a box to continue a track
+     * @param maxMissed       sampled frames a track may go unseen before it ends
+     * @param rematchInterval sampled frames between match attempts for a track
+     *                        that has not matched yet; 0 matches each track once
+     */
+    FaceTracker(double iouThreshold, int maxMissed, int rematchInterval) {
+        this.iouThreshold = iouThreshold;
+        this.maxMissed = maxMissed;
+        this.rematchInterval = rematchInterval;
+    }
+
+    /**
+     * Assigns the boxes of one sampled frame to tracks and returns the tracks
+     * that need a watchlist match: new ones, and unmatched ones whose retry
+     * interval has elapsed.
+     */
+    List<Track> update(List<int[]> boxes, long frame, double timestampMs) {
+        List<Track> unassigned = new ArrayList<>(active);
+        List<Track> toMatch = new ArrayList<>();
+        for (int[] box : boxes) {
+            Track best = null;
+            double bestIou = iouThreshold;
+            for (Track track : unassigned) {
+                double iou = iou(track, box);
+                if (iou >= bestIou) {
+                    bestIou = iou;
+                    best = track;
+                }
+            }
+            if (best == null) {
+                best = new Track(nextId++, box, frame, timestampMs);
+                active.add(best);
+                toMatch.add(best);
+                continue;
+            }
+            unassigned.remove(best);
+            best.update(box, frame, timestampMs);
+            if (best.match == null && rematchInterval > 0 && ++best.framesSinceMatch >= rematchInterval) {
+                toMatch.add(best);
+            }
+        }
+
+        for (Track track : unassigned) {
+            track.missed++;
+        }
+        Iterator<Track> it = active.iterator();
+        while (it.hasNext()) {
+            Track track = it.next();
+            if (track.missed > maxMissed) {
+                it.remove();
+                finished.add(track);
+            }
+        }
+        return toMatch;
+    }
+
+    /**
+     * Records a match attempt. A track keeps its first successful match.
+     */
+    void setMatch(Track track, FaceResult result) {
+        track.framesSinceMatch = 0;
+        if (track.match == null && result.criminal() != null) {
+            track.match = result;
+        }
+    }
+
+    /**
+     * Ends every open track and returns all tracks in creation order.
+     */
+    List<Track> finish() {
+        finished.addAll(active);
+        active.clear();
+        finished.sort((a, b) -> Integer.compare(a.id, b.id));
+        return finished;
+    }
+
+    private static double iou(Track track, int[] box) {
+        int left = Math.max(track.x, box[0]);
+        int top = Math.max(track.y, box[1]);
+        int right = Math.min(track.x + track.width, box[0] + box[2]);
+        int bottom = Math.min(track.y + track.height, box[1] + box[3]);
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        double intersection = (double) (right - left) * (bottom - top);
+        double union = (double) track.width * track.height + (double) box[2] * box[3] - intersection;
+        return intersection / union;
+    }
+}
@@ -0,0 +1,32 @@
+package com.criminaldetector.service;
+
+import java.util.List;
+
+/**
+ * In-memory nearest-neighbour index over fixed-length face feature vectors.
+ * Vectors are expected to be mean-centred and L2-normalised so that the dot
+ * product of two vectors is their normalised correlation in [-1, 1].
+ */
+public interface FaceVectorIndex {
+
+    /**
+     * Adds or replaces the vector stored for the given criminal.
+     */
+    void upsert(long criminalId, float[] vector);
+
+    void remove(long criminalId);
+
+    boolean contains(long criminalId);
+
+    void clear();
+
+    int size();
+
+    /**
+     * Returns at most {@code k} entries scoring at least {@code minScore},
+     * best first. Ties are broken by ascending criminal id.
+     *
+     * @throws IllegalArgumentException if {@code k} is less than 1
+     */
+    List<FaceMatch> search(float[] query, int k, double minScore);
+}
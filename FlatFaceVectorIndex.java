@@ -0,0 +1,213 @@
+package com.criminaldetector.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Exact nearest-neighbour index that scans every vector on each query.
+ * Vectors are packed into one contiguous float array so the inner product
+ * loop stays cache friendly and is vectorised by the JIT. Collections larger
+ * than one shard are scanned shard by shard in parallel on the face matching
+ * pool, with the same result as a sequential scan; without a pool the shards
+ * are scanned one after another on the calling thread.
+ */
+public class FlatFaceVectorIndex implements FaceVectorIndex {
+
+    static final Comparator<FaceMatch> BEST_FIRST = Comparator
+            .comparingDouble(FaceMatch::score).reversed()
+            .thenComparingLong(FaceMatch::criminalId);
+
+    private final int dimension;
+    private final int shardSize;
+    private final ForkJoinPool pool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] ids = new long[16];
+    private float[] vectors;
+    private int count;
+
+    /**
+     * @param pool workers for scanning shards in parallel, or null to scan sequentially
+     */
+    public FlatFaceVectorIndex(int dimension, int shardSize, ForkJoinPool pool) {
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("shardSize must be positive");
+        }
+        this.dimension = dimension;
+        this.shardSize = shardSize;
+        this.pool = pool;
+        this.vectors = new float[ids.length * dimension];
+    }
+
+    @Override
+    public void upsert(long criminalId, float[] vector) {
+        checkDimension(vector);
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(criminalId);
+            if (slot == null) {
+                ensureCapacity(count + 1);
+                slot = count++;
+                slots.put(criminalId, slot);
+                ids[slot] = criminalId;
+            }
+            System.arraycopy(vector, 0, vectors, slot * dimension, dimension);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long criminalId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(criminalId);
+            if (slot == null) {
+                return;
+            }
+            // Move the last entry into the freed slot to keep the array dense
+            int last = --count;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                System.arraycopy(vectors, last * dimension, vectors, slot * dimension, dimension);
+                slots.put(ids[slot], slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long criminalId) {
+        lock.readLock().lock();
+        try {
+            return slots.containsKey(criminalId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            count = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<FaceMatch> search(float[] query, int k, double minScore) {
+        checkDimension(query);
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1 but was " + k);
+        }
+        lock.readLock().lock();
+        try {
+            // Shard workers read the arrays while this thread holds the read lock
+            long[] ids = this.ids;
+            float[] vectors = this.vectors;
+            int count = this.count;
+            if (count <= shardSize || pool == null) {
+                return drain(scan(query, ids, vectors, 0, count, k, minScore));
+            }
+
+            // Submitted explicitly so the scan is bounded by the matching pool, whatever thread calls it
+            int shards = (count + shardSize - 1) / shardSize;
+            List<ForkJoinTask<PriorityQueue<FaceMatch>>> partial = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                int from = shard * shardSize;
+                int to = Math.min(count, from + shardSize);
+                partial.add(pool.submit(() -> scan(query, ids, vectors, from, to, k, minScore)));
+            }
+            PriorityQueue<FaceMatch> top = new PriorityQueue<>(k + 1, BEST_FIRST.reversed());
+            for (ForkJoinTask<PriorityQueue<FaceMatch>> shardTask : partial) {
+                for (FaceMatch match : shardTask.join()) {
+                    offer(top, match, k);
+                }
+            }
+            return drain(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PriorityQueue<FaceMatch> scan(float[] query, long[] ids, float[] vectors, int from, int to,
+                                          int k, double minScore) {
+        PriorityQueue<FaceMatch> top = new PriorityQueue<>(k + 1, BEST_FIRST.reversed());
+        for (int i = from; i < to; i++) {
+            double score = dot(query, vectors, i * dimension, dimension);
+            if (score >= minScore) {
+                offer(top, new FaceMatch(ids[i], score), k);
+            }
+        }
+        return top;
+    }
+
+    static double dot(float[] query, float[] data, int offset, int dimension) {
+        // Four independent accumulators let the JIT pipeline and vectorise the loop
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimension; i += 4) {
+            s0 += query[i] * data[offset + i];
+            s1 += query[i + 1] * data[offset + i + 1];
+            s2 += query[i + 2] * data[offset + i + 2];
+            s3 += query[i + 3] * data[offset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += query[i] * data[offset + i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    static void offer(PriorityQueue<FaceMatch> top, FaceMatch match, int k) {
+        if (top.size() < k) {
+            top.add(match);
+        } else if (BEST_FIRST.compare(match, top.peek()) < 0) {
+            top.poll();
+            top.add(match);
+        }
+    }
+
+    static List<FaceMatch> drain(PriorityQueue<FaceMatch> top) {
+        List<FaceMatch> result = new ArrayList<>(top);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > ids.length) {
+            int newCapacity = Math.max(required, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            vectors = Arrays.copyOf(vectors, newCapacity * dimension);
+        }
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                "Expected vector of length " + dimension + " but got " + vector.length);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Haar cascade detection on an enhanced scene, with and without the
+ * prescaling step, across input resolutions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HaarDetectionBenchmark {
+
+    @Param({"640x480", "1280x720", "3840x2160"})
+    public String resolution;
+
+    @Param({"true", "false"})
+    public boolean prescale;
+
+    private BenchmarkContext context;
+    private HaarFaceDetector haar;
+    private Mat enhanced;
+    private Mat gray;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(1, Map.of("face.detector.haar.prescale.enabled", prescale));
+        haar = context.haarFaceDetector();
+
+        String[] size = resolution.split("x");
+        try (PointerScope scope = new PointerScope()) {
+            Mat scene = SyntheticImages.scene(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 1, 2);
+            enhanced = new Mat();
+            gray = new Mat();
+            context.faceDetectionService().enhance(scene, enhanced, gray);
+            scope.detach(enhanced);
+            scope.detach(gray);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        enhanced.close();
+        gray.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int detect() {
+        try (PointerScope scope = new PointerScope()) {
+            return haar.detectFaces(enhanced, gray, new DetectionTimings()).size();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_core.RectVector;
+import org.bytedeco.opencv.opencv_core.Size;
+import org.bytedeco.opencv.opencv_objdetect.CascadeClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+
+/**
+ * Viola-Jones face detection with OpenCV's frontal-face Haar cascade.
+ *
+ * <p>Large inputs are first shrunk so their longer side measures
+ * {@code face.detector.haar.prescale.target-long-side} pixels, by a factor no
+ * smaller than {@code face.detector.haar.prescale.min-scale}. Every pyramid
+ * level the cascade scans then shrinks by the factor squared, and the
+ * detected rectangles are mapped back to the original coordinates. The
+ * cascade cannot see faces smaller than its 24 pixel window in the working
+ * image, so on a shrunk input the smallest reported face grows from
+ * {@code MIN_FACE_SIZE} to 24 divided by the factor: about 150 pixels for a
+ * 4000 pixel photo shrunk to 640.
+ */
+@Component
+public class HaarFaceDetector implements FaceDetector {
+    private static final Logger logger = LoggerFactory.getLogger(HaarFaceDetector.class);
+    public static final String NAME = "haar";
+    private static final int MIN_FACE_SIZE = 80; // Minimum face size for detection
+    private static final double SCALE_FACTOR = 1.05; // More precise scaling
+    private static final int MIN_NEIGHBORS = 4; // Increased for better quality detections
+    private static final int CASCADE_WINDOW = 24; // Training window of the frontal-face cascade
+
+    @Value("${face.detector.haar.prescale.enabled:true}")
+    private boolean prescaleEnabled;
+
+    // Longer side inputs are shrunk to; smaller inputs are scanned as they are
+    @Value("${face.detector.haar.prescale.target-long-side:640}")
+    private int prescaleTargetLongSide;
+
+    // Smallest factor applied, so very large inputs keep some resolution and end up above the target
+    @Value("${face.detector.haar.prescale.min-scale:0.1}")
+    private double prescaleMinScale;
+
+    private final String cascadePath;
+    // CascadeClassifier is not safe for concurrent use, so each thread loads its own
+    private final ThreadLocal<CascadeClassifier> classifiers;
+
+    public HaarFaceDetector() throws IOException {
+        File cascadeFile = new ClassPathResource("haarcascade_frontalface_default.xml").getFile();
+        cascadePath = cascadeFile.getAbsolutePath();
+        CascadeClassifier classifier = loadClassifier();
+        if (classifier == null) {
+            throw new IOException("Error loading face detection cascade classifier");
+        }
+        classifiers = ThreadLocal.withInitial(this::loadClassifier);
+        classifiers.set(classifier);
+        logger.info("Haar cascade face detector initialized from {}", cascadePath);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Rect> detectFaces(Mat image, Mat gray, DetectionTimings timings) {
+        double scale = prescaleFactor(gray);
+        if (scale >= 1.0) {
+            long start = timings.start();
+            List<Rect> faces = detect(gray, SCALE_FACTOR, MIN_NEIGHBORS, MIN_FACE_SIZE);
+            timings.stop(NAME, start);
+            return faces;
+        }
+
+        long start = timings.start();
+        Mat working = new Mat();
+        resize(gray, working, new Size(), scale, scale, INTER_AREA);
+        timings.stop("prescale", start);
+
+        start = timings.start();
+        int workingMinFace = Math.max(CASCADE_WINDOW, (int) Math.round(MIN_FACE_SIZE * scale));
+        List<Rect> workingFaces = detect(working, SCALE_FACTOR, MIN_NEIGHBORS, workingMinFace);
+        timings.stop(NAME, start);
+
+        // Map rectangles back to the full-resolution image used for cropping
+        List<Rect> faces = new ArrayList<>(workingFaces.size());
+        for (Rect face : workingFaces) {
+            int x = (int) Math.floor(face.x() / scale);
+            int y = (int) Math.floor(face.y() / scale);
+            int right = Math.min(gray.cols(), (int) Math.ceil((face.x() + face.width()) / scale));
+            int bottom = Math.min(gray.rows(), (int) Math.ceil((face.y() + face.height()) / scale));
+            faces.add(new Rect(x, y, right - x, bottom - y));
+        }
+        return faces;
+    }
+
+    private double prescaleFactor(Mat gray) {
+        int longSide = Math.max(gray.cols(), gray.rows());
+        if (!prescaleEnabled || prescaleTargetLongSide <= 0 || longSide <= prescaleTargetLongSide) {
+            return 1.0;
+        }
+        return Math.min(1.0, Math.max((double) prescaleTargetLongSide / longSide, prescaleMinScale));
+    }
+
+    /**
+     * Runs the cascade with explicit parameters. A {@code minSize} of 0 means
+     * no minimum, as in OpenCV's defaults.
+     */
+    public List<Rect> detect(Mat gray, double scaleFactor, int minNeighbors, int minSize) {
+        RectVector faces = new RectVector();
+        classifiers.get().detectMultiScale(
+            gray,
+            faces,
+            scaleFactor,
+            minNeighbors,
+            0,            // Flags
+            new Size(minSize, minSize), // Minimum face size
+            new Size()    // Maximum face size
+        );
+        return Arrays.asList(faces.get());
+    }
+
+    private CascadeClassifier loadClassifier() {
+        // Loaded lazily inside request scopes, so keep the classifier out of them
+        try (PointerScope scope = new PointerScope()) {
+            CascadeClassifier classifier = new CascadeClassifier(cascadePath);
+            if (classifier.empty()) {
+                logger.error("Error loading face detection cascade classifier from {}", cascadePath);
+                return null;
+            }
+            scope.detach(classifier);
+            return classifier;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.criminaldetector.service;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing a decoded frame to DJL: the former copy through a heap
+ * array and an NDArray against wrapping the native buffer, and the
+ * {@code toNDArray} call the translator makes next, for the full frame and
+ * for a frame shrunk to the model input first. Allocation rates are the
+ * point, so run it with the GC profiler:
+ * {@code mvn -Pjmh verify -Djmh.args="ImageConversionBenchmark -prof gc"}
+ * and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageConversionBenchmark {
+
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+
+    private Mat frame;
+    private NDManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] size = resolution.split("x");
+        try (PointerScope scope = new PointerScope()) {
+            frame = SyntheticImages.scene(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 1, 2);
+            scope.detach(frame);
+        }
+        manager = NDManager.newBaseManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+        frame.close();
+    }
+
+    @Benchmark
+    public Image copyThroughHeap() {
+        try (NDManager local = manager.newSubManager()) {
+            byte[] data = new byte[frame.rows() * frame.cols() * frame.channels()];
+            frame.data().get(data);
+            NDArray array = local.create(data).reshape(frame.rows(), frame.cols(), frame.channels());
+            return ImageFactory.getInstance().fromNDArray(array);
+        }
+    }
+
+    @Benchmark
+    public Image wrapNativeBuffer() {
+        return DjlImages.wrap(frame);
+    }
+
+    // What the translator gets from the full frame: cvtColor plus a frame-sized heap array
+    @Benchmark
+    public Shape fullFrameToNDArray() {
+        try (NDManager local = manager.newSubManager()) {
+            return DjlImages.wrap(frame).toNDArray(local, Image.Flag.COLOR).getShape();
+        }
+    }
+
+    // The same after shrinking to the model input, as the predict path now does
+    @Benchmark
+    public Shape modelSizedToNDArray() {
+        try (PointerScope scope = new PointerScope(); NDManager local = manager.newSubManager()) {
+            return DjlImages.wrapForModel(frame, FaceModelLoader.INPUT_SIZE, FaceModelLoader.INPUT_SIZE)
+                .toNDArray(local, Image.Flag.COLOR).getShape();
+        }
+    }
+}
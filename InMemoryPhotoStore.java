@@ -0,0 +1,69 @@
+package com.criminaldetector.service;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps photos on the heap. Intended for tests and throwaway instances;
+ * everything is lost on restart.
+ */
+public class InMemoryPhotoStore implements PhotoStore {
+
+    private record StoredPhoto(byte[] content, long lastModified) {
+    }
+
+    private final Map<String, StoredPhoto> photos = new ConcurrentHashMap<>();
+
+    @Override
+    public String store(byte[] content, String extension) {
+        String name = PhotoStore.contentName(content, extension);
+        photos.computeIfAbsent(name, key -> new StoredPhoto(content.clone(), System.currentTimeMillis()));
+        return name;
+    }
+
+    @Override
+    public byte[] read(String name) throws IOException {
+        StoredPhoto photo = name != null ? photos.get(name) : null;
+        if (photo == null) {
+            throw new NoSuchFileException(name);
+        }
+        return photo.content().clone();
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return name != null && photos.containsKey(name);
+    }
+
+    @Override
+    public void delete(String name) {
+        if (name != null) {
+            photos.remove(name);
+        }
+    }
+
+    @Override
+    public Resource getResource(String name) {
+        StoredPhoto photo = name != null ? photos.get(name) : null;
+        if (photo == null) {
+            return null;
+        }
+        // The resource handler needs a filename for the content type and a modification time
+        return new ByteArrayResource(photo.content()) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+
+            @Override
+            public long lastModified() {
+                return photo.lastModified();
+            }
+        };
+    }
+}
@@ -0,0 +1,291 @@
+package com.criminaldetector.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index using an inverted file (IVF) layout.
+ * Vectors are partitioned around {@code nlist} spherical k-means centroids and
+ * a query only scans the {@code nprobe} closest partitions. Until enough
+ * vectors are enrolled to train the centroids the index falls back to an
+ * exact scan, and it retrains whenever the collection doubles in size.
+ * Training runs on a snapshot of the vectors outside the lock, so searches
+ * keep using the previous centroids until the new ones are swapped in.
+ */
+public class IvfFaceVectorIndex implements FaceVectorIndex {
+
+    private static final int TRAINING_ITERATIONS = 10;
+    private static final int MIN_POINTS_PER_LIST = 8;
+
+    private final int dimension;
+    private final int nlist;
+    private final int nprobe;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // TreeMap keeps training and fallback scans in a deterministic order
+    private final Map<Long, float[]> vectors = new TreeMap<>();
+    private final Map<Long, Integer> assignments = new HashMap<>();
+    private float[][] centroids;
+    private List<List<Long>> lists;
+    private int trainedSize;
+    // Set while a thread trains outside the lock, so concurrent upserts do not start another run
+    private boolean training;
+    // Bumped by clear(), so centroids trained before it are discarded
+    private long generation;
+
+    public IvfFaceVectorIndex(int dimension, int nlist, int nprobe) {
+        if (nlist < 1 || nprobe < 1) {
+            throw new IllegalArgumentException("nlist and nprobe must be positive");
+        }
+        this.dimension = dimension;
+        this.nlist = nlist;
+        this.nprobe = Math.min(nprobe, nlist);
+    }
+
+    @Override
+    public void upsert(long criminalId, float[] vector) {
+        checkDimension(vector);
+        List<float[]> snapshot = null;
+        long trainingGeneration;
+        lock.writeLock().lock();
+        try {
+            unassign(criminalId);
+            vectors.put(criminalId, vector.clone());
+            if (centroids != null) {
+                assign(criminalId, vectors.get(criminalId));
+            }
+            if (!training && shouldTrain()) {
+                training = true;
+                snapshot = new ArrayList<>(vectors.values());
+            }
+            trainingGeneration = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (snapshot != null) {
+            float[][] trained = null;
+            try {
+                trained = train(snapshot);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    training = false;
+                    if (trained != null && generation == trainingGeneration) {
+                        install(trained, snapshot.size());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void remove(long criminalId) {
+        lock.writeLock().lock();
+        try {
+            unassign(criminalId);
+            vectors.remove(criminalId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long criminalId) {
+        lock.readLock().lock();
+        try {
+            return vectors.containsKey(criminalId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            vectors.clear();
+            assignments.clear();
+            centroids = null;
+            lists = null;
+            trainedSize = 0;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<FaceMatch> search(float[] query, int k, double minScore) {
+        checkDimension(query);
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1 but was " + k);
+        }
+        lock.readLock().lock();
+        try {
+            PriorityQueue<FaceMatch> top = new PriorityQueue<>(k + 1, FlatFaceVectorIndex.BEST_FIRST.reversed());
+            if (centroids == null) {
+                for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+                    score(query, entry.getKey(), entry.getValue(), k, minScore, top);
+                }
+            } else {
+                for (int list : nearestLists(query)) {
+                    for (Long id : lists.get(list)) {
+                        score(query, id, vectors.get(id), k, minScore, top);
+                    }
+                }
+            }
+            return FlatFaceVectorIndex.drain(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(float[] query, long id, float[] vector, int k, double minScore,
+                       PriorityQueue<FaceMatch> top) {
+        double score = FlatFaceVectorIndex.dot(query, vector, 0, dimension);
+        if (score >= minScore) {
+            FlatFaceVectorIndex.offer(top, new FaceMatch(id, score), k);
+        }
+    }
+
+    private int[] nearestLists(float[] query) {
+        Integer[] order = new Integer[nlist];
+        double[] scores = new double[nlist];
+        for (int c = 0; c < nlist; c++) {
+            order[c] = c;
+            scores[c] = FlatFaceVectorIndex.dot(query, centroids[c], 0, dimension);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        int[] probes = new int[nprobe];
+        for (int i = 0; i < nprobe; i++) {
+            probes[i] = order[i];
+        }
+        return probes;
+    }
+
+    private boolean shouldTrain() {
+        int size = vectors.size();
+        if (size < nlist * MIN_POINTS_PER_LIST) {
+            return false;
+        }
+        return centroids == null || size >= trainedSize * 2;
+    }
+
+    /**
+     * Runs spherical k-means over the given points. Touches no index state,
+     * so it runs without holding the lock.
+     */
+    private float[][] train(List<float[]> points) {
+        Random random = new Random(42);
+        float[][] trained = new float[nlist][];
+        for (int c = 0; c < nlist; c++) {
+            trained[c] = points.get(random.nextInt(points.size())).clone();
+        }
+
+        int[] labels = new int[points.size()];
+        for (int iteration = 0; iteration < TRAINING_ITERATIONS; iteration++) {
+            for (int p = 0; p < points.size(); p++) {
+                labels[p] = closest(trained, points.get(p));
+            }
+            float[][] sums = new float[nlist][dimension];
+            int[] counts = new int[nlist];
+            for (int p = 0; p < points.size(); p++) {
+                float[] point = points.get(p);
+                float[] sum = sums[labels[p]];
+                for (int d = 0; d < dimension; d++) {
+                    sum[d] += point[d];
+                }
+                counts[labels[p]]++;
+            }
+            for (int c = 0; c < nlist; c++) {
+                // Empty clusters keep their previous centroid
+                if (counts[c] > 0) {
+                    trained[c] = normalize(sums[c]);
+                }
+            }
+        }
+
+        return trained;
+    }
+
+    // Swaps in new centroids and reassigns every vector currently stored; caller holds the write lock
+    private void install(float[][] trained, int size) {
+        centroids = trained;
+        lists = new ArrayList<>(nlist);
+        for (int c = 0; c < nlist; c++) {
+            lists.add(new ArrayList<>());
+        }
+        assignments.clear();
+        for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+            assign(entry.getKey(), entry.getValue());
+        }
+        trainedSize = size;
+    }
+
+    private void assign(long id, float[] vector) {
+        int list = closest(centroids, vector);
+        lists.get(list).add(id);
+        assignments.put(id, list);
+    }
+
+    private void unassign(long id) {
+        Integer list = assignments.remove(id);
+        if (list != null) {
+            lists.get(list).remove(Long.valueOf(id));
+        }
+    }
+
+    private int closest(float[][] candidates, float[] vector) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < candidates.length; c++) {
+            double score = FlatFaceVectorIndex.dot(vector, candidates[c], 0, dimension);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vector;
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                "Expected vector of length " + dimension + " but got " + vector.length);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.criminaldetector.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps photos on the local filesystem under {@code root/ab/cd/<hash>.<ext>},
+ * so no single directory grows with the watchlist. Photos uploaded before
+ * content addressing are still read from the legacy flat directory.
+ */
+public class LocalPhotoStore implements PhotoStore {
+    private static final Logger logger = LoggerFactory.getLogger(LocalPhotoStore.class);
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    private final Path root;
+    private final Path legacyDir;
+
+    public LocalPhotoStore(Path root, Path legacyDir) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.legacyDir = legacyDir != null ? legacyDir.toAbsolutePath().normalize() : null;
+        Files.createDirectories(this.root);
+        logger.info("Storing photos in {}", this.root);
+    }
+
+    @Override
+    public String store(byte[] content, String extension) throws IOException {
+        String name = PhotoStore.contentName(content, extension);
+        Path target = shardPath(name);
+        if (Files.exists(target)) {
+            return name;
+        }
+        Files.createDirectories(target.getParent());
+        // Concurrent uploads of the same photo write identical bytes, so the last move wins harmlessly
+        Path temp = target.resolveSibling(name + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return name;
+    }
+
+    @Override
+    public byte[] read(String name) throws IOException {
+        Path path = locate(name);
+        if (path == null) {
+            throw new NoSuchFileException(name);
+        }
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return locate(name) != null;
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        if (!PhotoStore.isValidName(name)) {
+            return;
+        }
+        if (CONTENT_NAME.matcher(name).matches()) {
+            Files.deleteIfExists(shardPath(name));
+        }
+        if (legacyDir != null) {
+            Files.deleteIfExists(legacyDir.resolve(name));
+        }
+    }
+
+    @Override
+    public Resource getResource(String name) {
+        Path path = locate(name);
+        return path != null ? new FileSystemResource(path) : null;
+    }
+
+    private Path locate(String name) {
+        if (!PhotoStore.isValidName(name)) {
+            return null;
+        }
+        if (CONTENT_NAME.matcher(name).matches()) {
+            Path path = shardPath(name);
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        if (legacyDir != null) {
+            Path path = legacyDir.resolve(name);
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private Path shardPath(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+}
@@ -0,0 +1,15 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+
+/**
+ * The part of a matched {@link Criminal} that detection results expose:
+ * enough to identify the record, without crime details or other columns of
+ * the entity.
+ */
+public record MatchedCriminal(Long id, String name) {
+
+    static MatchedCriminal of(Criminal criminal) {
+        return new MatchedCriminal(criminal.getId(), criminal.getName());
+    }
+}
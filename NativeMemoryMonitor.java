@@ -0,0 +1,40 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.Pointer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports off-heap memory as seen by JavaCPP, so soak tests can check that
+ * native allocations from the detection pipeline are released promptly.
+ */
+@Component
+public class NativeMemoryMonitor {
+
+    // Bytes currently allocated through JavaCPP and not yet deallocated
+    public long getTrackedBytes() {
+        return Pointer.totalBytes();
+    }
+
+    // Number of live JavaCPP pointers with a deallocator
+    public long getTrackedCount() {
+        return Pointer.totalCount();
+    }
+
+    // Resident set size of the whole process
+    public long getPhysicalBytes() {
+        return Pointer.physicalBytes();
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("trackedBytes", getTrackedBytes());
+        snapshot.put("trackedCount", getTrackedCount());
+        snapshot.put("physicalBytes", getPhysicalBytes());
+        snapshot.put("maxPhysicalBytes", Pointer.maxPhysicalBytes());
+        snapshot.put("heapUsedBytes", Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        return snapshot;
+    }
+}
@@ -0,0 +1,68 @@
+package com.criminaldetector.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Storage for watchlist photos. Photos are addressed by the SHA-256 of their
+ * content, so uploading the same photo twice stores it once and a replaced
+ * photo always gets a new name.
+ */
+public interface PhotoStore {
+
+    Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+(\\.[A-Za-z0-9]+)?");
+    Set<String> EXTENSIONS = Set.of("jpg", "jpeg", "png", "bmp", "webp", "tif", "tiff");
+
+    /**
+     * Stores the photo if it is not already present and returns its name.
+     *
+     * @param extension original file extension, with or without the dot
+     */
+    String store(byte[] content, String extension) throws IOException;
+
+    /**
+     * @throws java.nio.file.NoSuchFileException if no photo has this name
+     */
+    byte[] read(String name) throws IOException;
+
+    boolean exists(String name);
+
+    void delete(String name) throws IOException;
+
+    /**
+     * Returns the photo as a resource for HTTP serving, or null if missing.
+     */
+    Resource getResource(String name);
+
+    /**
+     * Names come from request paths, so anything that could walk out of the
+     * store is rejected.
+     */
+    static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    static String contentName(byte[] content, String extension) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(hash) + "." + normalizeExtension(extension);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalizeExtension(String extension) {
+        String ext = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        if (ext.startsWith(".")) {
+            ext = ext.substring(1);
+        }
+        return EXTENSIONS.contains(ext) ? ext : "jpg";
+    }
+}
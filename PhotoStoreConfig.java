@@ -0,0 +1,30 @@
+package com.criminaldetector.config;
+
+import com.criminaldetector.service.InMemoryPhotoStore;
+import com.criminaldetector.service.LocalPhotoStore;
+import com.criminaldetector.service.PhotoStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class PhotoStoreConfig {
+
+    @Bean
+    public PhotoStore photoStore(@Value("${photo.store.type:local}") String type,
+                                 @Value("${photo.store.local.root:data/photos}") String root,
+                                 @Value("${photo.store.local.legacy-dir:src/main/resources/static/uploads}") String legacyDir)
+            throws IOException {
+        switch (type.toLowerCase()) {
+            case "local":
+                return new LocalPhotoStore(Paths.get(root), legacyDir.isBlank() ? null : Paths.get(legacyDir));
+            case "memory":
+                return new InMemoryPhotoStore();
+            default:
+                throw new IllegalArgumentException("Unknown photo store type: " + type);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.criminaldetector.config;
+
+import com.criminaldetector.service.PhotoStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resolves {@code /uploads/<name>} against the configured {@link PhotoStore}
+ * instead of scanning classpath or filesystem locations.
+ */
+public class PhotoStoreResourceResolver implements ResourceResolver {
+
+    private final PhotoStore photoStore;
+
+    public PhotoStoreResourceResolver(PhotoStore photoStore) {
+        this.photoStore = photoStore;
+    }
+
+    @Override
+    @Nullable
+    public Resource resolveResource(@Nullable HttpServletRequest request, @NonNull String requestPath,
+                                    @NonNull List<? extends Resource> locations, @NonNull ResourceResolverChain chain) {
+        return PhotoStore.isValidName(requestPath) ? photoStore.getResource(requestPath) : null;
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(@NonNull String resourcePath, @NonNull List<? extends Resource> locations,
+                                 @NonNull ResourceResolverChain chain) {
+        return PhotoStore.isValidName(resourcePath) && photoStore.exists(resourcePath) ? resourcePath : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each stage of the detection pipeline on its own: decode, enhance,
+ * face preprocessing, and the similarity metric for a single probe/template
+ * pair. Haar detection is in {@link HaarDetectionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineStageBenchmark {
+
+    @Param({"1280x720", "3840x2160"})
+    public String resolution;
+
+    private BenchmarkContext context;
+    private FaceDetectionService service;
+    private byte[] encodedScene;
+    private Mat scene;
+    private Mat enhanced;
+    private Mat gray;
+    private Mat faceCrop;
+    private Mat probe;
+    private Mat template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(1, Map.of());
+        service = context.faceDetectionService();
+
+        String[] size = resolution.split("x");
+        // Fixtures outlive the trial, so each is detached from the setup scope
+        try (PointerScope scope = new PointerScope()) {
+            encodedScene = SyntheticImages.encodeJpeg(
+                SyntheticImages.scene(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 1, 2));
+            scene = service.decode(encodedScene, new DetectionTimings());
+            enhanced = new Mat();
+            gray = new Mat();
+            service.enhance(scene, enhanced, gray);
+            faceCrop = SyntheticImages.face(FaceDetectionService.TEMPLATE_SIZE * 2, 0);
+            probe = service.preprocessFace(faceCrop);
+            template = BenchmarkContext.template(0);
+            for (Mat mat : new Mat[] {enhanced, gray, faceCrop, probe, template}) {
+                scope.detach(mat);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Mat mat : new Mat[] {scene, enhanced, gray, faceCrop, probe, template}) {
+            mat.close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public int decode() throws Exception {
+        try (Mat image = service.decode(encodedScene, new DetectionTimings())) {
+            return image.cols();
+        }
+    }
+
+    @Benchmark
+    public int enhance() {
+        try (PointerScope scope = new PointerScope()) {
+            Mat out = new Mat();
+            Mat outGray = new Mat();
+            service.enhance(scene, out, outGray);
+            return outGray.cols();
+        }
+    }
+
+    @Benchmark
+    public int preprocessFace() {
+        try (PointerScope scope = new PointerScope()) {
+            return service.preprocessFace(faceCrop).cols();
+        }
+    }
+
+    @Benchmark
+    public double similarity() {
+        return service.calculateSimilarity(probe, template);
+    }
+
+    @Benchmark
+    public double ssim() {
+        return service.calculateSSIM(probe, template);
+    }
+}
@@ -0,0 +1,135 @@
+package com.criminaldetector.service;
+
+import ai.djl.inference.Predictor;
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.output.DetectedObjects;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool of RetinaFace predictors shared by all request threads.
+ * Predictors are not thread-safe, so each call borrows one exclusively. The
+ * pool size bounds how many inferences run at once and, together with the
+ * PyTorch intra-op thread count, how many native threads compete for the
+ * cores; callers beyond that wait up to the acquire timeout.
+ */
+@Component
+public class PredictorPool {
+    private static final Logger logger = LoggerFactory.getLogger(PredictorPool.class);
+
+    private final FaceModelLoader faceModelLoader;
+    private final int size;
+    private final long acquireTimeoutMs;
+    private final BlockingQueue<Predictor<Image, DetectedObjects>> idle;
+    private final Set<Predictor<Image, DetectedObjects>> live = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final Timer acquireTimer;
+    private final Counter acquireTimeouts;
+
+    public PredictorPool(FaceModelLoader faceModelLoader, MeterRegistry registry,
+                         @Value("${face.model.predictor-pool.size:0}") int size,
+                         @Value("${face.model.predictor-pool.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        this.faceModelLoader = faceModelLoader;
+        // Default: one predictor per core share, so pool size x intra-op threads matches the core count
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.size = size > 0 ? size : Math.max(1, cores / faceModelLoader.getIntraOpThreads());
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idle = new ArrayBlockingQueue<>(this.size);
+        faceModelLoader.onUnload(this::clear);
+        logger.info("Face model predictor pool: {} predictors, {} intra-op threads each",
+            this.size, faceModelLoader.getIntraOpThreads());
+
+        acquireTimer = Timer.builder("face.model.predictor.acquire")
+            .description("Time spent waiting for a free predictor")
+            .publishPercentileHistogram()
+            .register(registry);
+        acquireTimeouts = Counter.builder("face.model.predictor.acquire.timeouts")
+            .description("Predictor requests that gave up because the pool stayed saturated")
+            .register(registry);
+        Gauge.builder("face.model.predictor.pool.size", this, PredictorPool::getSize).register(registry);
+        Gauge.builder("face.model.predictor.pool.in.use", inUse, AtomicInteger::get).register(registry);
+    }
+
+    /**
+     * Borrows a predictor, creating one while the pool is below its size and
+     * otherwise waiting for one to be released. Every predictor obtained here
+     * must be handed back through {@link #release(Predictor)}.
+     *
+     * @throws IllegalStateException if the model is not loaded, or no
+     *         predictor became free within the acquire timeout
+     */
+    public Predictor<Image, DetectedObjects> acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        Predictor<Image, DetectedObjects> predictor = idle.poll();
+        if (predictor == null) {
+            predictor = create();
+        }
+        if (predictor == null) {
+            predictor = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (predictor == null) {
+            acquireTimeouts.increment();
+            throw new IllegalStateException("No face model predictor became free within " + acquireTimeoutMs
+                + " ms (pool size " + size + ")");
+        }
+        inUse.incrementAndGet();
+        return predictor;
+    }
+
+    public void release(Predictor<Image, DetectedObjects> predictor) {
+        inUse.decrementAndGet();
+        // Predictors of an unloaded model are closed instead of returning to the pool
+        if (!live.contains(predictor) || !idle.offer(predictor)) {
+            predictor.close();
+        }
+    }
+
+    private Predictor<Image, DetectedObjects> create() {
+        while (true) {
+            int current = created.get();
+            if (current >= size) {
+                return null;
+            }
+            if (created.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            Predictor<Image, DetectedObjects> predictor = faceModelLoader.getModel().newPredictor();
+            live.add(predictor);
+            return predictor;
+        } catch (RuntimeException e) {
+            created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // Called before the model is closed; borrowed predictors are closed on release
+    private void clear() {
+        live.clear();
+        Predictor<Image, DetectedObjects> predictor;
+        while ((predictor = idle.poll()) != null) {
+            predictor.close();
+        }
+        created.set(0);
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,76 @@
+package com.criminaldetector.service;
+
+import ai.djl.inference.Predictor;
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.output.DetectedObjects;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One RetinaFace prediction through the real translator, handing the model
+ * either the full frame or a frame shrunk to the model input. Run it with
+ * {@code -prof gc} to see the copies {@code toNDArray} makes. Needs the model
+ * archive in {@code models/}, or wherever {@code -jvmArgsAppend
+ * -Dface.model.dir=...} points, so it is excluded from the default run:
+ * {@code mvn -Pjmh verify -Djmh.args="RetinaFaceBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RetinaFaceBenchmark {
+
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+
+    @Param({"full", "model-sized"})
+    public String input;
+
+    private AnnotationConfigApplicationContext context;
+    private PredictorPool predictorPool;
+    private Predictor<Image, DetectedObjects> predictor;
+    private Mat frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(FaceModelLoader.class, PredictorPool.class);
+        // Starts the background model load
+        context.refresh();
+        context.getBean(FaceModelLoader.class).whenSettled().join();
+        predictorPool = context.getBean(PredictorPool.class);
+        predictor = predictorPool.acquire();
+
+        String[] size = resolution.split("x");
+        try (PointerScope scope = new PointerScope()) {
+            frame = SyntheticImages.scene(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 1, 2);
+            scope.detach(frame);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        predictorPool.release(predictor);
+        frame.close();
+        context.close();
+    }
+
+    @Benchmark
+    public DetectedObjects predict() throws Exception {
+        try (PointerScope scope = new PointerScope()) {
+            Image image = "full".equals(input)
+                ? DjlImages.wrap(frame)
+                : DjlImages.wrapForModel(frame, FaceModelLoader.INPUT_SIZE, FaceModelLoader.INPUT_SIZE);
+            return predictor.predict(image);
+        }
+    }
+}
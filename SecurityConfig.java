@@ -2,12 +2,17 @@ package com.criminaldetector.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-// import static org.springframework.security.config.Customizer.withDefaults;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+
+import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
 @EnableWebSecurity
@@ -17,7 +22,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/register", "/css/**", "/js/**", "/images/**", "/api/**", "/criminal/**").permitAll()
+                .requestMatchers("/register", "/css/**", "/js/**", "/images/**", "/criminal/**",
+                    "/actuator/health/**").permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -29,6 +35,13 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/login?logout")
                 .permitAll()
             )
+            // API clients and metrics scrapers authenticate with HTTP Basic and get a 401 instead of the login page
+            .httpBasic(withDefaults())
+            .exceptionHandling(exceptions -> exceptions
+                .defaultAuthenticationEntryPointFor(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED),
+                    new OrRequestMatcher(new AntPathRequestMatcher("/api/**"),
+                        new AntPathRequestMatcher("/actuator/**")))
+            )
             .csrf(csrf -> csrf.disable());  // Disable CSRF for API endpoints
 
         return http.build();
@@ -0,0 +1,49 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.criminal_face_detector.CriminalFaceDetectorApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the whole application in server mode, from an empty JVM
+ * until Tomcat accepts requests. Each fork is a fresh JVM measured once, so
+ * class loading and JIT are part of the number, as on a real deploy. Needs
+ * the database the application is configured for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"default", "deferred"})
+    public String jpaBootstrapMode;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = new SpringApplicationBuilder(CriminalFaceDetectorApplication.class)
+            .profiles(CriminalFaceDetectorApplication.SERVER_PROFILE)
+            .properties(
+                "server.port=0",
+                "spring.data.jpa.repositories.bootstrap-mode=" + jpaBootstrapMode,
+                // Model load and warm-up run in the background and would only add noise
+                "detection.warmup.enabled=false",
+                "face.model.offline=true")
+            .run();
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Point;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_core.Scalar;
+import org.bytedeco.opencv.opencv_core.Size;
+import org.bytedeco.opencv.opencv_videoio.VideoWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC3;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.IMWRITE_JPEG_QUALITY;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.imencode;
+import static org.bytedeco.opencv.global.opencv_imgproc.*;
+
+/**
+ * Deterministic face-like images and clips for benchmarks, startup warm-up and
+ * smoke runs of video mode. The same seed always draws the same picture, so
+ * runs on different machines and releases compare the same work without
+ * shipping photos or videos.
+ *
+ * <p>Lives in the main sources, not under {@code src/jmh/java}: warm-up and
+ * video mode need it in every build, and the benchmarks use it from here.
+ */
+final class SyntheticImages {
+
+    private SyntheticImages() {
+    }
+
+    /**
+     * Draws a frontal cartoon face filling a square of the given size. Images
+     * belong to the caller's PointerScope.
+     */
+    static Mat face(int size, long seed) {
+        Mat image = new Mat(size, size, CV_8UC3, new Scalar(200, 200, 200, 0));
+        drawFace(image, size / 2, size / 2, size, new Random(seed));
+        return image;
+    }
+
+    /**
+     * Draws a scene of the given size with faces for the given seeds laid out
+     * left to right over a noisy background.
+     */
+    static Mat scene(int width, int height, long... faceSeeds) {
+        Mat image = new Mat(height, width, CV_8UC3);
+        Random background = new Random(width * 31L + height);
+        byte[] pixels = new byte[width * height * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) (60 + background.nextInt(80));
+        }
+        image.data().put(pixels);
+        GaussianBlur(image, image, new Size(7, 7), 0);
+        int slot = width / Math.max(1, faceSeeds.length);
+        int faceSize = Math.min(slot, height) * 3 / 5;
+        for (int i = 0; i < faceSeeds.length; i++) {
+            int cx = slot * i + slot / 2;
+            int cy = height / 2 + (background.nextInt(21) - 10);
+            drawFace(image, cx, cy, faceSize, new Random(faceSeeds[i]));
+        }
+        return image;
+    }
+
+    /**
+     * Writes a clip of a {@link #scene} that pans slowly sideways, so every
+     * face stays on screen and moves a little between frames. It is MJPEG in
+     * an AVI container, which OpenCV writes and reads without FFmpeg.
+     */
+    static void video(Path file, int width, int height, int frames, double fps, long... faceSeeds)
+            throws IOException {
+        try (PointerScope scope = new PointerScope()) {
+            int pan = Math.max(1, width / 10);
+            Mat scene = scene(width + pan, height, faceSeeds);
+            VideoWriter writer = new VideoWriter(file.toAbsolutePath().toString(),
+                VideoWriter.fourcc((byte) 'M', (byte) 'J', (byte) 'P', (byte) 'G'), fps, new Size(width, height), true);
+            if (!writer.isOpened()) {
+                throw new IOException("Could not open a video writer for " + file);
+            }
+            try {
+                for (int i = 0; i < frames; i++) {
+                    int dx = frames > 1 ? pan * i / (frames - 1) : 0;
+                    writer.write(new Mat(scene, new Rect(dx, 0, width, height)));
+                }
+            } finally {
+                writer.release();
+            }
+        }
+    }
+
+    static byte[] encodeJpeg(Mat image) {
+        try (PointerScope scope = new PointerScope()) {
+            BytePointer encoded = new BytePointer();
+            imencode(".jpg", image, encoded, new IntPointer(IMWRITE_JPEG_QUALITY, 90));
+            byte[] bytes = new byte[(int) encoded.limit()];
+            encoded.get(bytes);
+            return bytes;
+        }
+    }
+
+    // Proportions follow an average frontal face closely enough for the Haar cascade to fire
+    private static void drawFace(Mat image, int cx, int cy, int size, Random random) {
+        int tone = 150 + random.nextInt(70);
+        Scalar skin = new Scalar(tone - 40, tone - 10, tone, 0);
+        Scalar dark = new Scalar(30 + random.nextInt(30), 30 + random.nextInt(30), 40 + random.nextInt(30), 0);
+        int w = size * (36 + random.nextInt(6)) / 100;
+        int h = size * (46 + random.nextInt(6)) / 100;
+
+        // Hair, head and neck
+        ellipse(image, new Point(cx, cy - h / 5), new Size(w + size / 20, h), 0, 180, 360, dark, -1, LINE_AA, 0);
+        ellipse(image, new Point(cx, cy), new Size(w, h), 0, 0, 360, skin, -1, LINE_AA, 0);
+
+        // Eyes and brows
+        int eyeY = cy - h / 5 + random.nextInt(Math.max(1, h / 20));
+        int eyeDx = w * (40 + random.nextInt(10)) / 100;
+        int eyeW = Math.max(2, w / 5);
+        int eyeH = Math.max(1, h / 12);
+        for (int side = -1; side <= 1; side += 2) {
+            int ex = cx + side * eyeDx;
+            ellipse(image, new Point(ex, eyeY), new Size(eyeW, eyeH), 0, 0, 360, new Scalar(235, 235, 235, 0), -1, LINE_AA, 0);
+            circle(image, new Point(ex, eyeY), Math.max(1, eyeH), dark, -1, LINE_AA, 0);
+            line(image, new Point(ex - eyeW, eyeY - eyeH * 3), new Point(ex + eyeW, eyeY - eyeH * 3 - side * random.nextInt(3)),
+                dark, Math.max(1, size / 40), LINE_AA, 0);
+        }
+
+        // Nose shadow and mouth
+        Scalar shadow = new Scalar(tone - 70, tone - 50, tone - 40, 0);
+        line(image, new Point(cx, eyeY + eyeH), new Point(cx - w / 10, cy + h / 5), shadow, Math.max(1, size / 50), LINE_AA, 0);
+        ellipse(image, new Point(cx, cy + h * (45 + random.nextInt(8)) / 100), new Size(w * (35 + random.nextInt(15)) / 100, h / 12),
+            0, 0, 180, new Scalar(60, 60, 150, 0), Math.max(1, size / 40), LINE_AA, 0);
+    }
+}
@@ -0,0 +1,74 @@
+package com.criminaldetector.controller;
+
+import com.criminaldetector.service.PhotoStore;
+import com.criminaldetector.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Serves photo thumbnails. Photo names are content hashes and a changed
+ * photo gets a new name, so responses are cached as immutable. Bodies go out
+ * through Tomcat's sendfile when the connector supports it, without being
+ * copied through the JVM.
+ */
+@Controller
+public class ThumbnailController {
+
+    // Private: thumbnails sit behind login, so shared caches must not hand them to anyone else
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+        .cachePrivate().immutable().getHeaderValue();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @GetMapping("/thumbnails/{size}/{imageName:.+}")
+    public void thumbnail(@PathVariable int size, @PathVariable String imageName,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!thumbnailService.isSupportedSize(size) || !PhotoStore.isValidName(imageName)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = thumbnailService.getThumbnail(size, imageName);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + size + "-" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // Sets the validators and answers 304 when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+        } else {
+            Files.copy(file, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.criminaldetector.service;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.bytedeco.opencv.global.opencv_core.CV_8UC1;
+import static org.bytedeco.opencv.global.opencv_imgcodecs.*;
+import static org.bytedeco.opencv.global.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+
+/**
+ * Creates small JPEG copies of watchlist photos so listing pages never ship
+ * the full-size originals. Thumbnails share the photo's content-addressed
+ * name. They are written once at enrollment, or on first request for records
+ * enrolled before thumbnails existed.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    // Longest side in pixels, largest first so each size is resized from the previous one
+    private static final int[] SIZES = {256, 128, 64};
+
+    @Autowired
+    private PhotoStore photoStore;
+
+    // Thumbnails are derived data and can be rebuilt from the photo store at any time
+    @Value("${photo.thumbnail-dir:data/thumbnails}")
+    private Path thumbnailDir;
+
+    @Value("${thumbnail.jpeg-quality:85}")
+    private int jpegQuality;
+
+    public boolean isSupportedSize(int size) {
+        return Arrays.stream(SIZES).anyMatch(s -> s == size);
+    }
+
+    /**
+     * Returns the thumbnail file, creating all sizes if it does not exist
+     * yet, or null when the original photo is missing or unreadable.
+     */
+    public Path getThumbnail(int size, String imageName) {
+        Path thumbnail = thumbnailPath(size, imageName);
+        if (Files.isRegularFile(thumbnail) || createThumbnails(imageName)) {
+            return thumbnail;
+        }
+        return null;
+    }
+
+    /**
+     * Writes every thumbnail size for a photo from a single decode.
+     */
+    public boolean createThumbnails(String imageName) {
+        if (!photoStore.exists(imageName)) {
+            return false;
+        }
+        try (PointerScope scope = new PointerScope()) {
+            byte[] data = photoStore.read(imageName);
+            Mat source = imdecode(new Mat(1, data.length, CV_8UC1, new BytePointer(data)), IMREAD_COLOR);
+            if (source == null || source.empty()) {
+                logger.warn("Could not read photo {} for thumbnails", imageName);
+                return false;
+            }
+            for (int size : SIZES) {
+                source = scaleDown(source, size);
+                writeAtomically(thumbnailPath(size, imageName), source);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Error creating thumbnails for {}: {}", imageName, e.getMessage());
+            return false;
+        }
+    }
+
+    public void deleteThumbnails(String imageName) {
+        for (int size : SIZES) {
+            try {
+                Files.deleteIfExists(thumbnailPath(size, imageName));
+            } catch (IOException e) {
+                logger.warn("Could not delete {}px thumbnail of {}: {}", size, imageName, e.getMessage());
+            }
+        }
+    }
+
+    // Allocations belong to the caller's PointerScope
+    private Mat scaleDown(Mat image, int maxSide) {
+        int longest = Math.max(image.cols(), image.rows());
+        if (longest <= maxSide) {
+            return image;
+        }
+        double scale = (double) maxSide / longest;
+        Mat scaled = new Mat();
+        resize(image, scaled, new Size(Math.max(1, (int) Math.round(image.cols() * scale)),
+            Math.max(1, (int) Math.round(image.rows() * scale))), 0, 0, INTER_AREA);
+        return scaled;
+    }
+
+    /**
+     * Encodes to memory and moves the file into place, so a concurrent
+     * request never serves a half-written thumbnail.
+     */
+    private void writeAtomically(Path target, Mat image) throws IOException {
+        BytePointer encoded = new BytePointer();
+        if (!imencode(".jpg", image, encoded, new IntPointer(IMWRITE_JPEG_QUALITY, jpegQuality))) {
+            throw new IOException("Could not encode thumbnail " + target.getFileName());
+        }
+        byte[] bytes = new byte[(int) encoded.limit()];
+        encoded.get(bytes);
+
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path thumbnailPath(int size, String imageName) {
+        int dot = imageName.lastIndexOf('.');
+        String base = dot > 0 ? imageName.substring(0, dot) : imageName;
+        return thumbnailDir.resolve(String.valueOf(size)).resolve(base + ".jpg");
+    }
+}
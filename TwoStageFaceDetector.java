@@ -0,0 +1,89 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.criminal_face_detector.CriminalFaceDetectorApplication;
+import ai.djl.modality.cv.output.DetectedObjects;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cascade of the cheap Haar detector and the RetinaFace DNN: Haar proposes
+ * candidate regions and RetinaFace only has to verify the small crops around
+ * them, which removes most Haar false positives at a fraction of the cost of
+ * running the DNN on the full image.
+ */
+@Component
+public class TwoStageFaceDetector implements FaceDetector {
+    public static final String NAME = "two-stage";
+    private static final double CROP_MARGIN = 0.25; // Context added around each proposal for the DNN
+
+    @Autowired
+    private HaarFaceDetector haarFaceDetector;
+
+    @Autowired
+    private CriminalFaceDetectorApplication faceModel;
+
+    @Autowired
+    private FaceModelLoader faceModelLoader;
+
+    @Value("${face.detector.two-stage.min-confidence:0.9}")
+    private double minConfidence;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isReady() {
+        return faceModelLoader.isReady();
+    }
+
+    @Override
+    public List<Rect> detectFaces(Mat image, Mat gray, DetectionTimings timings) {
+        List<Rect> proposals = haarFaceDetector.detectFaces(image, gray, timings);
+        if (proposals.isEmpty()) {
+            return proposals;
+        }
+
+        long start = timings.start();
+        List<Mat> crops = new ArrayList<>(proposals.size());
+        for (Rect proposal : proposals) {
+            crops.add(new Mat(image, expand(proposal, image)).clone());
+        }
+        List<DetectedObjects> detections = faceModel.predictBatch(crops);
+
+        List<Rect> verified = new ArrayList<>();
+        for (int i = 0; i < proposals.size(); i++) {
+            if (containsFace(detections.get(i))) {
+                verified.add(proposals.get(i));
+            }
+        }
+        timings.stop(RetinaFaceDetector.NAME + "-verify", start);
+        return verified;
+    }
+
+    private boolean containsFace(DetectedObjects detections) {
+        for (DetectedObjects.DetectedObject detection : detections.<DetectedObjects.DetectedObject>items()) {
+            if (detection.getProbability() > minConfidence && detection.getClassName().equalsIgnoreCase("face")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Rect expand(Rect face, Mat image) {
+        int marginX = (int) (face.width() * CROP_MARGIN);
+        int marginY = (int) (face.height() * CROP_MARGIN);
+        int x = Math.max(0, face.x() - marginX);
+        int y = Math.max(0, face.y() - marginY);
+        int right = Math.min(image.cols(), face.x() + face.width() + marginX);
+        int bottom = Math.min(image.rows(), face.y() + face.height() + marginY);
+        return new Rect(x, y, right - x, bottom - y);
+    }
+}
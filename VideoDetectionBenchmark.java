@@ -0,0 +1,54 @@
+package com.criminaldetector.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Video mode end to end on a generated clip: demuxing, frame sampling, Haar
+ * detection, tracking and one watchlist match per track. The clip is written
+ * once per trial, so the numbers include decoding but not encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VideoDetectionBenchmark {
+
+    @Param({"1280x720"})
+    public String resolution;
+
+    // Frames analysed per second of video; the clip runs at 30 fps
+    @Param({"5", "30"})
+    public double sampleFps;
+
+    private BenchmarkContext context;
+    private VideoDetectionService service;
+    private Path clip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(3, Map.of());
+        service = context.videoDetectionService();
+
+        String[] size = resolution.split("x");
+        clip = Files.createTempFile("video-benchmark-", ".avi");
+        SyntheticImages.video(clip, Integer.parseInt(size[0]), Integer.parseInt(size[1]), 90, 30, 0, 1, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(clip);
+        context.close();
+    }
+
+    @Benchmark
+    public VideoDetectionResult detect() throws Exception {
+        return service.detect(clip, HaarFaceDetector.NAME, sampleFps);
+    }
+}
@@ -0,0 +1,20 @@
+package com.criminaldetector.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of running detection over a video.
+ *
+ * @param framesRead     frames read from the source, including skipped ones
+ * @param framesAnalyzed sampled frames that went through face detection
+ * @param tracks         face tracks seen, matched or not
+ * @param matchAttempts  watchlist matches run, at most a few per track
+ * @param fps            source frames processed per second of wall-clock time
+ * @param analyzedFps    sampled frames analysed per second of wall-clock time
+ * @param timeline       matched tracks in order of first appearance
+ */
+public record VideoDetectionResult(double sourceFps, long framesRead, long framesAnalyzed, int tracks,
+                                   int matchAttempts, double elapsedMs, double fps, double analyzedFps,
+                                   List<VideoTimelineEntry> timeline, Map<String, Double> timingsMs) {
+}
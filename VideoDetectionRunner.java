@@ -0,0 +1,121 @@
+package com.criminaldetector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line video mode. Started with {@code --detect-video=<file>}, the
+ * application processes the file, writes the JSON result to
+ * {@code --output=<file>} (or the log) and exits. Optional arguments are
+ * {@code --detector=<name>} and {@code --sample-fps=<n>}. With
+ * {@code --detect-video=synthetic} a generated clip is processed instead, as
+ * a smoke test that needs no footage.
+ *
+ * <p>The runner only records the outcome as the exit code; the launcher
+ * closes the context and exits, see {@link #isVideoMode(String[])}.
+ */
+@Component
+public class VideoDetectionRunner implements ApplicationRunner, ExitCodeGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(VideoDetectionRunner.class);
+    public static final String OPTION = "detect-video";
+    private static final String SYNTHETIC = "synthetic";
+
+    @Autowired
+    private VideoDetectionService videoDetectionService;
+
+    @Autowired
+    private FaceDetectorRegistry faceDetectorRegistry;
+
+    @Autowired
+    private FaceModelLoader faceModelLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private int exitCode;
+
+    /**
+     * Whether the arguments ask for video mode, in which case the launcher
+     * exits once the context has started and this runner has finished.
+     */
+    public static boolean isVideoMode(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + OPTION + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        String file = optionValue(args, OPTION);
+        String detector = optionValue(args, "detector");
+        String sampleFps = optionValue(args, "sample-fps");
+        String output = optionValue(args, "output");
+
+        Path synthetic = null;
+        try {
+            FaceDetector faceDetector = faceDetectorRegistry.get(detector);
+            if (!faceDetector.isReady()) {
+                // Unlike a web request there is nothing to retry later, so wait for the background load
+                logger.info("Waiting for the face model before running the {} detector", faceDetector.getName());
+                faceModelLoader.whenSettled().join();
+                if (!faceDetector.isReady()) {
+                    throw new IllegalStateException("Face detector " + faceDetector.getName() + " is not available: "
+                        + faceModelLoader.getStatus().get("error"));
+                }
+            }
+
+            Path video;
+            if (SYNTHETIC.equals(file)) {
+                synthetic = Files.createTempFile("synthetic-video-", ".avi");
+                SyntheticImages.video(synthetic, 1280, 720, 150, 30, 0, 1, 2);
+                video = synthetic;
+            } else {
+                video = Paths.get(file);
+            }
+
+            VideoDetectionResult result = videoDetectionService.detect(video, detector,
+                sampleFps != null ? Double.valueOf(sampleFps) : null);
+            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
+            if (output != null) {
+                Files.writeString(Paths.get(output), json);
+                logger.info("Video detection result written to {}", output);
+            } else {
+                logger.info("Video detection result:\n{}", json);
+            }
+        } catch (Exception e) {
+            logger.error("Video detection failed: {}", e.getMessage(), e);
+            exitCode = 1;
+        } finally {
+            if (synthetic != null) {
+                synthetic.toFile().delete();
+            }
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private static String optionValue(ApplicationArguments args, String name) {
+        return args.containsOption(name) && !args.getOptionValues(name).isEmpty()
+            ? args.getOptionValues(name).get(0)
+            : null;
+    }
+}
@@ -0,0 +1,165 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+import org.bytedeco.javacpp.PointerScope;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_videoio.VideoCapture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.bytedeco.opencv.global.opencv_videoio.CAP_PROP_FPS;
+import static org.bytedeco.opencv.global.opencv_videoio.CAP_PROP_POS_MSEC;
+
+/**
+ * Runs detection over a video file. Frames are sampled at a fixed rate, faces
+ * are linked into tracks across samples and each track is matched against the
+ * watchlist once, so a face that stays on screen costs one match, not one per
+ * frame.
+ */
+@Service
+public class VideoDetectionService {
+    private static final Logger logger = LoggerFactory.getLogger(VideoDetectionService.class);
+
+    @Autowired
+    private FaceDetectionService faceDetectionService;
+
+    @Autowired
+    private FaceDetectorRegistry faceDetectorRegistry;
+
+    // Frames analysed per second of video; skipped frames are grabbed but never converted
+    @Value("${detection.video.sample-fps:5}")
+    private double defaultSampleFps;
+
+    @Value("${detection.video.iou-threshold:0.3}")
+    private double iouThreshold;
+
+    // Sampled frames a track may go undetected before it is closed
+    @Value("${detection.video.max-missed:3}")
+    private int maxMissed;
+
+    // Sampled frames between retries for a track that has not matched yet; 0 never retries
+    @Value("${detection.video.rematch-interval:10}")
+    private int rematchInterval;
+
+    /**
+     * @param sampleFps frames to analyse per second of video, or null or 0 for
+     *                  the configured default
+     */
+    public VideoDetectionResult detect(Path video, String detectorName, Double sampleFps) throws IOException {
+        if (!Files.isRegularFile(video)) {
+            throw new IllegalArgumentException("Video file not found: " + video);
+        }
+        FaceDetector faceDetector = faceDetectorRegistry.get(detectorName);
+        double targetFps = sampleFps != null && sampleFps > 0 ? sampleFps : defaultSampleFps;
+
+        DetectionTimings timings = new DetectionTimings();
+        Map<Long, Criminal> watchlist = faceDetectionService.loadWatchlist(timings);
+        FaceTracker tracker = new FaceTracker(iouThreshold, maxMissed, rematchInterval);
+
+        long startNanos = System.nanoTime();
+        long framesRead = 0;
+        long framesAnalyzed = 0;
+        int matchAttempts = 0;
+        double sourceFps;
+
+        try (VideoCapture capture = new VideoCapture(video.toAbsolutePath().toString());
+             Mat frame = new Mat()) {
+            if (!capture.isOpened()) {
+                throw new IOException("Could not open video: " + video.getFileName());
+            }
+            sourceFps = capture.get(CAP_PROP_FPS);
+            // Containers without a frame rate are analysed frame by frame
+            int step = sourceFps > 0 ? Math.max(1, (int) Math.round(sourceFps / targetFps)) : 1;
+
+            while (true) {
+                long stageStart = timings.start();
+                boolean sampled = framesRead % step == 0;
+                // grab() only demuxes and decodes; retrieve() is skipped for frames not sampled
+                boolean ok = capture.grab() && (!sampled || capture.retrieve(frame));
+                timings.stop("decode", stageStart);
+                if (!ok) {
+                    break;
+                }
+                long frameIndex = framesRead++;
+                if (!sampled || frame.empty()) {
+                    continue;
+                }
+                double timestampMs = sourceFps > 0
+                    ? frameIndex * 1000.0 / sourceFps
+                    : capture.get(CAP_PROP_POS_MSEC);
+                framesAnalyzed++;
+                matchAttempts += analyzeFrame(frame, faceDetector, watchlist, tracker, frameIndex, timestampMs, timings);
+            }
+        }
+
+        double elapsedMs = (System.nanoTime() - startNanos) / 1_000_000.0;
+        List<FaceTracker.Track> tracks = tracker.finish();
+        List<VideoTimelineEntry> timeline = new ArrayList<>();
+        for (FaceTracker.Track track : tracks) {
+            FaceResult match = track.getMatch();
+            if (match != null) {
+                timeline.add(new VideoTimelineEntry(track.getId(), match.criminal(), match.score(),
+                    track.getFirstFrame(), track.getLastFrame(), track.getFirstSeenMs(), track.getLastSeenMs(),
+                    track.getX(), track.getY(), track.getWidth(), track.getHeight()));
+            }
+        }
+        double seconds = elapsedMs / 1000.0;
+        double fps = seconds > 0 ? framesRead / seconds : 0;
+        double analyzedFps = seconds > 0 ? framesAnalyzed / seconds : 0;
+        logger.info("Processed {} frames ({} analysed) of {} in {} ms: {} fps, {} tracks, {} matched",
+            framesRead, framesAnalyzed, video.getFileName(), String.format("%.0f", elapsedMs),
+            String.format("%.1f", fps), tracks.size(), timeline.size());
+        return new VideoDetectionResult(sourceFps, framesRead, framesAnalyzed, tracks.size(), matchAttempts,
+            elapsedMs, fps, analyzedFps, timeline, timings.toMillis());
+    }
+
+    /**
+     * Detects faces in one sampled frame, advances the tracker and matches
+     * only the tracks that need it. Returns the number of matches run.
+     */
+    private int analyzeFrame(Mat frame, FaceDetector faceDetector, Map<Long, Criminal> watchlist,
+                             FaceTracker tracker, long frameIndex, double timestampMs, DetectionTimings timings) {
+        try (PointerScope scope = new PointerScope()) {
+            long stageStart = timings.start();
+            Mat enhanced = new Mat();
+            Mat gray = new Mat();
+            faceDetectionService.enhance(frame, enhanced, gray);
+            timings.stop("enhance", stageStart);
+
+            List<Rect> faceRects = faceDetector.detectFaces(enhanced, gray, timings);
+            List<int[]> boxes = new ArrayList<>(faceRects.size());
+            for (Rect rect : faceRects) {
+                boxes.add(new int[] {rect.x(), rect.y(), rect.width(), rect.height()});
+            }
+
+            stageStart = timings.start();
+            List<FaceTracker.Track> toMatch = tracker.update(boxes, frameIndex, timestampMs);
+            timings.stop("track", stageStart);
+
+            stageStart = timings.start();
+            for (FaceTracker.Track track : toMatch) {
+                Rect rect = new Rect(track.getX(), track.getY(), track.getWidth(), track.getHeight());
+                FaceResult result = faceDetectionService.matchFace(enhanced, rect, watchlist, timings);
+                tracker.setMatch(track, result);
+                if (result.criminal() != null) {
+                    logger.info("Track {} matched criminal {} at {} ms (score {})", track.getId(),
+                        result.criminal().name(), String.format("%.0f", timestampMs),
+                        String.format("%.2f", result.score()));
+                }
+            }
+            timings.stop("match", stageStart);
+            return toMatch.size();
+        }
+    }
+}
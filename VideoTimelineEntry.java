@@ -0,0 +1,10 @@
+package com.criminaldetector.service;
+
+/**
+ * One matched face track in a video: who it matched, when the face was on
+ * screen and where it was last seen, in source frame pixel coordinates.
+ */
+public record VideoTimelineEntry(int trackId, MatchedCriminal criminal, double score,
+                                 long firstFrame, long lastFrame, double firstSeenMs, double lastSeenMs,
+                                 int x, int y, int width, int height) {
+}
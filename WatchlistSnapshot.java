@@ -0,0 +1,32 @@
+package com.criminaldetector.service;
+
+import com.criminaldetector.model.Criminal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of every criminal record at one data version. Snapshots are
+ * shared by all readers without locking, so the entities inside must be
+ * treated as read-only; load a record by id before modifying it.
+ *
+ * @param version   data version the snapshot was built from
+ * @param criminals all records in id order
+ * @param byId      the same records keyed by id
+ */
+public record WatchlistSnapshot(long version, List<Criminal> criminals, Map<Long, Criminal> byId) {
+
+    static WatchlistSnapshot of(long version, List<Criminal> criminals) {
+        Map<Long, Criminal> byId = new LinkedHashMap<>();
+        for (Criminal criminal : criminals) {
+            byId.put(criminal.getId(), criminal);
+        }
+        return new WatchlistSnapshot(version, List.copyOf(criminals), Collections.unmodifiableMap(byId));
+    }
+
+    public int size() {
+        return criminals.size();
+    }
+}
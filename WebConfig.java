@@ -1,16 +1,27 @@
 package com.criminaldetector.config;
 
+import com.criminaldetector.service.PhotoStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private PhotoStore photoStore;
+
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("classpath:/static/uploads/");
+                // Photos are content-addressed, so a cached copy never goes stale; private as they need a login
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .resourceChain(false)
+                .addResolver(new PhotoStoreResourceResolver(photoStore));
     }
 }
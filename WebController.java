@@ -4,7 +4,10 @@ import com.criminaldetector.service.CriminalService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import com.criminaldetector.model.CriminalSummary;
 
 @Controller
 public class WebController {
@@ -13,8 +16,16 @@ public class WebController {
     private CriminalService criminalService;
 
     @GetMapping("/criminals")
-    public String showCriminals(Model model) {
-        model.addAttribute("criminals", criminalService.getAllCriminals());
+    public String showCriminals(@RequestParam(value = "page", defaultValue = "0") int page,
+                                @RequestParam(value = "size", defaultValue = "20") int size,
+                                @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                @RequestParam(value = "dir", defaultValue = "asc") String dir,
+                                Model model) {
+        Page<CriminalSummary> criminalPage = criminalService.getCriminalPage(page, size, sort, dir);
+        model.addAttribute("criminals", criminalPage.getContent());
+        model.addAttribute("currentPage", criminalPage.getNumber());
+        model.addAttribute("totalPages", criminalPage.getTotalPages());
+        model.addAttribute("totalCriminals", criminalPage.getTotalElements());
         return "criminals";
     }
 } 
\ No newline at end of file